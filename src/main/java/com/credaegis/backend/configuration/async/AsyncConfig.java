@@ -0,0 +1,63 @@
+package com.credaegis.backend.configuration.async;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+//spring.threads.virtual.enabled (java 21 and up) switches tomcat, the rabbit listeners and scheduling to virtual
+//threads through boot, the executors declared here follow the same switch
+@Configuration
+public class AsyncConfig {
+
+
+    //runs independent read queries of one request side by side, each on its own connection.
+    //kept well below the connection pool size so parallel sections cannot starve other requests,
+    //when the queue is full the request thread runs the query itself
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor queryExecutor(@Value("${query.executor.pool.size}") int poolSize,
+                                           @Value("${query.executor.queue.capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("query-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    //a virtual thread per query, the pool size becomes a limit on queries running at once
+    //and further submitters wait for a slot instead of queueing
+    @Bean(name = "queryExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualQueryExecutor(SimpleAsyncTaskExecutorBuilder simpleAsyncTaskExecutorBuilder,
+                                                  @Value("${query.executor.pool.size}") int poolSize) {
+        return simpleAsyncTaskExecutorBuilder.virtualThreads(true).threadNamePrefix("query-")
+                .concurrencyLimit(poolSize).build();
+    }
+
+    //declaring any executor bean switches off boot's default one, which spring mvc runs streamed
+    //responses on, so it is declared here the same way boot would
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder threadPoolTaskExecutorBuilder) {
+        return threadPoolTaskExecutorBuilder.build();
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualApplicationTaskExecutor(SimpleAsyncTaskExecutorBuilder simpleAsyncTaskExecutorBuilder) {
+        return simpleAsyncTaskExecutorBuilder.virtualThreads(true).build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.credaegis.backend.configuration.cache;
+
+
+import com.credaegis.backend.constant.Constants;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+
+    //organizations, clusters and events are read on most requests and rarely change. every node keeps its own
+    //copy: writes through hibernate and bulk jpql updates invalidate the local regions, other nodes pick up a
+    //change when their entry expires, so the ttl bounds how long a rename or deactivation can look stale there
+    @Bean
+    public CacheManager hibernateCacheManager(@Value("${entity.cache.ttl.seconds}") long ttlSeconds,
+                                              @Value("${entity.cache.size}") long size) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        for (String region : List.of(Constants.ORGANIZATION_CACHE_REGION, Constants.CLUSTER_CACHE_REGION,
+                Constants.EVENT_CACHE_REGION, Constants.NAME_LOOKUP_CACHE_REGION)) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(size));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            createIfMissing(cacheManager, region, configuration);
+        }
+
+        //hibernate always sets up the default query region, nothing is cached in it
+        createIfMissing(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        //one entry per table holding its last write time, cached name lookups older than that are ignored.
+        //it must never lose entries, so it is neither bounded nor expired
+        createIfMissing(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+
+    private void createIfMissing(CacheManager cacheManager, String region,
+                                 CaffeineConfiguration<Object, Object> configuration) {
+        if (cacheManager.getCache(region) == null)
+            cacheManager.createCache(region, configuration);
+    }
+}
@@ -0,0 +1,78 @@
+package com.credaegis.backend.configuration.datasource;
+
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+//only active when replica urls are configured, otherwise boot's single datasource is used as before.
+//read-only transactions (including spring data's own read methods outside a service transaction) are sent
+//to the replicas, everything else goes to the primary. reads that fill a cache or authenticate a user run
+//in read-write transactions so they always see the primary
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.urls")
+public class ReadReplicaConfig {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(defaultCandidate = false)
+    public ReplicaDataSource replicaDataSource(DataSourceProperties dataSourceProperties,
+                                               @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                               @Value("${datasource.replica.urls}") List<String> urls,
+                                               @Value("${datasource.replica.pool.size}") int poolSize,
+                                               @Value("${datasource.replica.max.lag.seconds}") long maxLagSeconds) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(dataSourceProperties.determineUsername());
+            replica.setPassword(dataSourceProperties.determinePassword());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            //a replica that is down at startup must not stop the application, it just stays out of rotation
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReplicaDataSource(replicas, primaryDataSource, maxLagSeconds);
+    }
+
+    //set before the entity manager factory initializes, otherwise it takes the vendor adapter's dialect
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean entityManagerFactory)
+                    entityManagerFactory.setJpaDialect(new ReplicaAwareJpaDialect());
+                return bean;
+            }
+        };
+    }
+
+    //the physical connection is only taken once the first statement runs, by then the transaction has marked
+    //the connection read-only or not and the proxy picks the replica or the primary from that
+    @Bean
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,101 @@
+package com.credaegis.backend.configuration.datasource;
+
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//hands out connections to the read replicas in turn, skipping replicas that lag too far behind or could not be
+//reached on the last check. when no replica is usable the connection comes from the primary
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final List<Replica> replicas;
+    private final DataSource primary;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(List<DataSource> replicas, DataSource primary, long maxLagSeconds) {
+        this.replicas = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++)
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        this.primary = primary;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.usable)
+                continue;
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                //stays out of rotation until the next check finds it reachable again
+                replica.usable = false;
+                log.warn("{} unreachable, taken out of rotation: {}", replica.name, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    //a replica is usable when it answers and its replication thread is running with at most maxLagSeconds lag.
+    //an instance that reports no replication status at all (a stand-in database) counts as caught up
+    @Scheduled(fixedDelayString = "${datasource.replica.lag.check.millis}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            boolean usable;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+                if (status.next()) {
+                    long lag = status.getLong("Seconds_Behind_Source");
+                    usable = !status.wasNull() && lag <= maxLagSeconds;
+                } else {
+                    usable = true;
+                }
+            } catch (SQLException e) {
+                usable = false;
+            }
+            if (usable != replica.usable)
+                log.warn("{} {} rotation", replica.name, usable ? "back in" : "taken out of");
+            replica.usable = usable;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas)
+            if (replica.dataSource instanceof AutoCloseable closeable)
+                closeable.close();
+    }
+
+
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean usable = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
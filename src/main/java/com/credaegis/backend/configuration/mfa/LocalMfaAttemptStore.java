@@ -0,0 +1,56 @@
+package com.credaegis.backend.configuration.mfa;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+//per node counters, an attacker spreading attempts over n nodes gets n times the attempts.
+//the window starts at the first attempt and is not pushed back by later ones
+public class LocalMfaAttemptStore implements MfaAttemptStore {
+
+    private final Cache<String, AtomicInteger> attempts;
+    private final Cache<String, Boolean> usedCodes;
+    private final int maxFailures;
+
+
+    public LocalMfaAttemptStore(int maxFailures, Duration failureWindow, Duration usedCodeTtl, long maximumSize) {
+        this.maxFailures = maxFailures;
+        this.attempts = Caffeine.newBuilder()
+                .expireAfterWrite(failureWindow)
+                .maximumSize(maximumSize)
+                .build();
+        this.usedCodes = Caffeine.newBuilder()
+                .expireAfterWrite(usedCodeTtl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+
+    @Override
+    public boolean tryAcquire(String email) {
+        return attempts.get(key(email), key -> new AtomicInteger()).incrementAndGet() <= maxFailures;
+    }
+
+    @Override
+    public boolean isUsed(String email, String code) {
+        return usedCodes.getIfPresent(key(email) + ":" + code) != null;
+    }
+
+    @Override
+    public boolean markUsed(String email, String code) {
+        return usedCodes.asMap().putIfAbsent(key(email) + ":" + code, Boolean.TRUE) == null;
+    }
+
+    @Override
+    public void reset(String email) {
+        attempts.invalidate(key(email));
+    }
+
+
+    private String key(String email) {
+        return email.toLowerCase();
+    }
+}
@@ -0,0 +1,19 @@
+package com.credaegis.backend.configuration.mfa;
+
+
+//mfa login attempts and otp codes already used, per email. an attempt is reserved before the user is loaded or the
+//password verified, so guessing codes or replaying a seen one costs neither a query nor a bcrypt hash, and a burst
+//of parallel requests cannot all get in before the first failure is counted
+public interface MfaAttemptStore {
+
+    //counts the attempt and tells whether it is still within the limit for the current window. every attempt
+    //counts until a successful login resets the email
+    boolean tryAcquire(String email);
+
+    boolean isUsed(String email, String code);
+
+    //claims the code for the email, false when another login got to it first
+    boolean markUsed(String email, String code);
+
+    void reset(String email);
+}
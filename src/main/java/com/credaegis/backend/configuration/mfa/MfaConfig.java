@@ -14,8 +14,13 @@ import dev.samstevens.totp.secret.SecretGenerator;
 import dev.samstevens.totp.time.SystemTimeProvider;
 import dev.samstevens.totp.time.TimeProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
 
 @Configuration
 public class MfaConfig {
@@ -36,4 +41,24 @@ public class MfaConfig {
     QrGenerator qrGenerator(){
         return new ZxingPngQrGenerator();
     }
+
+    @Bean
+    @ConditionalOnProperty(name = "mfa.attempts.store", havingValue = "local", matchIfMissing = true)
+    MfaAttemptStore localMfaAttemptStore(@Value("${mfa.attempts.max.failures}") int maxFailures,
+                                         @Value("${mfa.attempts.window.seconds}") long windowSeconds,
+                                         @Value("${mfa.used.code.ttl.seconds}") long usedCodeTtlSeconds,
+                                         @Value("${mfa.attempts.local.size}") long maximumSize) {
+        return new LocalMfaAttemptStore(maxFailures, Duration.ofSeconds(windowSeconds),
+                Duration.ofSeconds(usedCodeTtlSeconds), maximumSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "mfa.attempts.store", havingValue = "redis")
+    MfaAttemptStore redisMfaAttemptStore(StringRedisTemplate stringRedisTemplate,
+                                         @Value("${mfa.attempts.max.failures}") int maxFailures,
+                                         @Value("${mfa.attempts.window.seconds}") long windowSeconds,
+                                         @Value("${mfa.used.code.ttl.seconds}") long usedCodeTtlSeconds) {
+        return new RedisMfaAttemptStore(stringRedisTemplate, maxFailures, Duration.ofSeconds(windowSeconds),
+                Duration.ofSeconds(usedCodeTtlSeconds));
+    }
 }
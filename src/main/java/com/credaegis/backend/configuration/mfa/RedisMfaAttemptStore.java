@@ -0,0 +1,65 @@
+package com.credaegis.backend.configuration.mfa;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+
+//shared by all nodes, one round trip per check
+public class RedisMfaAttemptStore implements MfaAttemptStore {
+
+    private static final String ATTEMPTS_PREFIX = "mfa:attempts:";
+    private static final String USED_CODE_PREFIX = "mfa:used:";
+
+    //the expiry is set in the same step as the first increment, so a key can never be left without one
+    private static final RedisScript<Long> COUNT_ATTEMPT = new DefaultRedisScript<>(
+            "local count = redis.call('INCR', KEYS[1]) " +
+            "if count == 1 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end " +
+            "return count", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final int maxFailures;
+    private final Duration failureWindow;
+    private final Duration usedCodeTtl;
+
+
+    public RedisMfaAttemptStore(StringRedisTemplate redisTemplate, int maxFailures, Duration failureWindow,
+                                Duration usedCodeTtl) {
+        this.redisTemplate = redisTemplate;
+        this.maxFailures = maxFailures;
+        this.failureWindow = failureWindow;
+        this.usedCodeTtl = usedCodeTtl;
+    }
+
+
+    @Override
+    public boolean tryAcquire(String email) {
+        Long count = redisTemplate.execute(COUNT_ATTEMPT, List.of(ATTEMPTS_PREFIX + key(email)),
+                String.valueOf(failureWindow.toMillis()));
+        return count != null && count <= maxFailures;
+    }
+
+    @Override
+    public boolean isUsed(String email, String code) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(USED_CODE_PREFIX + key(email) + ":" + code));
+    }
+
+    @Override
+    public boolean markUsed(String email, String code) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(USED_CODE_PREFIX + key(email) + ":" + code, "1", usedCodeTtl));
+    }
+
+    @Override
+    public void reset(String email) {
+        redisTemplate.delete(ATTEMPTS_PREFIX + key(email));
+    }
+
+
+    private String key(String email) {
+        return email.toLowerCase();
+    }
+}
@@ -0,0 +1,25 @@
+package com.credaegis.backend.configuration.notification;
+
+
+import com.credaegis.backend.service.NotificationPushService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class NotificationConfig {
+
+
+    //every node hears every user's channel and keeps only what its own streams need
+    @Bean
+    RedisMessageListenerContainer notificationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                NotificationPushService notificationPushService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(notificationPushService,
+                new PatternTopic(NotificationPushService.CHANNEL_PREFIX + "*"));
+        return container;
+    }
+}
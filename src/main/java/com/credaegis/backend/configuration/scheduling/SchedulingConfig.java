@@ -0,0 +1,10 @@
+package com.credaegis.backend.configuration.scheduling;
+
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
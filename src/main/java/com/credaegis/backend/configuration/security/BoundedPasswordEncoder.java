@@ -0,0 +1,106 @@
+package com.credaegis.backend.configuration.security;
+
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+//bcrypt runs on its own small pool instead of the request threads, so a burst of logins can only ever
+//keep poolSize cores busy. once the queue is full further hashing is refused straight away with a 503
+//rather than piling up behind the burst and holding every request thread
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+
+    public BoundedPasswordEncoder(int strength, int poolSize, int queueCapacity, long timeoutMillis) {
+        this(new BCryptPasswordEncoder(strength), pool(poolSize, queueCapacity), timeoutMillis);
+    }
+
+    BoundedPasswordEncoder(BCryptPasswordEncoder bCryptPasswordEncoder, ExecutorService executor, long timeoutMillis) {
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> bCryptPasswordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> bCryptPasswordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    //true for hashes made with a lower work factor than the configured one, spring security then
+    //rehashes the password on the next successful login
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bCryptPasswordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    //time one hash at the configured strength, the work factor should keep this in the low hundreds of ms
+    public long benchmarkMillis() {
+        long start = System.nanoTime();
+        encode("credaegis-benchmark");
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+
+    private <T> T run(Callable<T> hashing) {
+        Future<T> future;
+        try {
+            future = executor.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            throw ExceptionFactory.serviceUnavailable("Too many login attempts right now, try again shortly");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw ExceptionFactory.serviceUnavailable("Too many login attempts right now, try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionFactory.internalError();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw ExceptionFactory.internalError();
+        }
+    }
+
+    private static ExecutorService pool(int poolSize, int queueCapacity) {
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "bcrypt-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -3,9 +3,15 @@ package com.credaegis.backend.configuration.security;
 import com.credaegis.backend.configuration.session.CustomInvalidSessionStrategy;
 import com.credaegis.backend.constant.Constants;
 import com.credaegis.backend.configuration.security.service.CustomUserDetailsService;
+import com.credaegis.backend.configuration.security.service.PrincipalCache;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -13,10 +19,10 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+@Slf4j
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -54,17 +60,34 @@ public class HttpSecurityConfig {
 
 
 
+    //hashes below the configured work factor are rehashed through the password service on login
     @Bean
-    public AuthenticationManager authenticationManager() {
+    public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
         daoAuthenticationProvider.setUserDetailsService(customUserDetailsService);
-        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+        daoAuthenticationProvider.setUserDetailsPasswordService(customUserDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
         return new ProviderManager(daoAuthenticationProvider);
     }
 
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength}") int strength,
+                                                 @Value("${security.bcrypt.pool.size}") int poolSize,
+                                                 @Value("${security.bcrypt.queue.capacity}") int queueCapacity,
+                                                 @Value("${security.bcrypt.timeout.millis}") long timeoutMillis) {
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(strength, poolSize, queueCapacity, timeoutMillis);
+        log.info("bcrypt work factor {} takes {} ms per hash on this machine", strength, passwordEncoder.benchmarkMillis());
+        return passwordEncoder;
+    }
+
+    //every node hears every principal eviction, including its own
+    @Bean
+    RedisMessageListenerContainer principalEvictionListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                     PrincipalCache principalCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(principalCache, new ChannelTopic(PrincipalCache.EVICTION_CHANNEL));
+        return container;
     }
 }
@@ -10,9 +10,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,11 +23,13 @@ import java.util.Optional;
 
 @Service
 @AllArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final PrincipalCache principalCache;
+    private final TransactionTemplate transactionTemplate;
 
 
     private List<GrantedAuthority> getAuthoritesAndRoles(String userId) {
@@ -36,10 +41,26 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(username).orElseThrow(()->new UsernameNotFoundException("email not found"));
+        return principalCache.get(username, email -> transactionTemplate.execute(status -> loadPrincipal(email)));
+    }
+
+    //called after a successful login when the stored hash uses an outdated work factor
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        CustomUser customUser = (CustomUser) user;
+        userRepository.updatePassword(customUser.getId(), newPassword);
+        principalCache.evictByUserId(customUser.getId());
+        return new CustomUser(new ArrayList<>(customUser.getAuthorities()), customUser.getId(), customUser.getEmail(),
+                customUser.getOrganizationId(), newPassword, customUser.getMfaEnabled());
+    }
+
+    //the loader does not cache misses, unknown emails hit the database every time. user and role are read in
+    //one read-write transaction so a cached principal never comes from a replica that missed a change
+    private CustomUser loadPrincipal(String email) {
+        User user = userRepository.findByEmail(email).orElseThrow(()->new UsernameNotFoundException("email not found"));
         return new CustomUser(getAuthoritesAndRoles(user.getId()),user.getId(),user.getEmail(),
                 user.getOrganization().getId(),user.getPassword(),user.getMfaEnabled());
-
     }
 
 
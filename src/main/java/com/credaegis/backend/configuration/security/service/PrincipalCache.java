@@ -0,0 +1,104 @@
+package com.credaegis.backend.configuration.security.service;
+
+import com.credaegis.backend.configuration.security.principal.CustomUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+
+//principals loaded for authentication, keyed by email, with the email of each cached user id alongside so an
+//eviction does not scan the cache. anything that changes what a principal carries or whether the user may log in
+//(role, password, mfa, deactivation, deletion) must evict the user. evictions are published so every node drops
+//its copy, the ttl only bounds how long a missed eviction or message can go unnoticed
+@Slf4j
+@Component
+public class PrincipalCache implements MessageListener {
+
+    public static final String EVICTION_CHANNEL = "principals:evictions";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<String, CustomUser> principals;
+    private final Map<String, String> emailsByUserId = new ConcurrentHashMap<>();
+
+    public PrincipalCache(StringRedisTemplate stringRedisTemplate,
+                          @Value("${security.principal.cache.ttl.seconds}") long ttlSeconds,
+                          @Value("${security.principal.cache.size}") long maximumSize) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        //runs inside the removal, so it cannot drop the index entry of a principal loaded again right after
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maximumSize)
+                .<String, CustomUser>evictionListener((email, principal, cause) -> {
+                    if (principal != null)
+                        emailsByUserId.remove(principal.getId(), email);
+                })
+                .build();
+    }
+
+
+    public CustomUser get(String email, Function<String, CustomUser> loader) {
+        return principals.get(email, key -> {
+            CustomUser principal = loader.apply(key);
+            if (principal != null)
+                emailsByUserId.put(principal.getId(), key);
+            return principal;
+        });
+    }
+
+    //evicted right away and, inside a transaction, once more after commit so a login that read the
+    //old rows while the transaction was open cannot leave them cached. the other nodes are told once
+    //the change is visible to them
+    public void evictByUserId(String userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                    publish(userId);
+                }
+            });
+        else
+            publish(userId);
+    }
+
+    public void evictByUserIds(Iterable<String> userIds) {
+        for (String userId : userIds)
+            evictByUserId(userId);
+    }
+
+    //an eviction published by any node, this one included
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        evict(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+
+    private void evict(String userId) {
+        String email = emailsByUserId.remove(userId);
+        if (email != null)
+            principals.invalidate(email);
+    }
+
+    //a failure here leaves the other nodes on the old principal until the ttl runs out
+    private void publish(String userId) {
+        try {
+            stringRedisTemplate.convertAndSend(EVICTION_CHANNEL, userId);
+        } catch (Exception e) {
+            log.error("Error in publishing principal eviction for {}: {}", userId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.credaegis.backend.configuration.session;
+
+
+import com.credaegis.backend.configuration.security.principal.CustomUser;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+//every authenticated request reads the session back from redis. the values in it are written in a small binary
+//form: the timestamps spring session keeps and the security context of a logged in user, which comes down to
+//the principal's ids, mfa flag and roles (the password hash is not kept in the session).
+//anything else goes through jdk serialization, and so did every value written before this serializer,
+//those still start with the jdk stream magic and are read the same way
+public class CompactSessionSerializer implements RedisSerializer<Object> {
+
+    private static final byte LONG = 1;
+    private static final byte INTEGER = 2;
+    private static final byte SECURITY_CONTEXT = 3;
+
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null)
+            return new byte[0];
+        if (!(value instanceof Long) && !(value instanceof Integer) && !isCompactSecurityContext(value))
+            return jdkSerializer.serialize(value);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (value instanceof Long number) {
+                out.writeByte(LONG);
+                out.writeLong(number);
+            } else if (value instanceof Integer number) {
+                out.writeByte(INTEGER);
+                out.writeInt(number);
+            } else {
+                out.writeByte(SECURITY_CONTEXT);
+                writePrincipal(out, ((SecurityContext) value).getAuthentication());
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize session value", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0)
+            return null;
+        if (bytes[0] != LONG && bytes[0] != INTEGER && bytes[0] != SECURITY_CONTEXT)
+            return jdkSerializer.deserialize(bytes);
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            return switch (bytes[0]) {
+                case LONG -> in.readLong();
+                case INTEGER -> in.readInt();
+                default -> readSecurityContext(in);
+            };
+        } catch (IOException e) {
+            throw new SerializationException("Cannot deserialize session value", e);
+        }
+    }
+
+
+    //only the exact shape a login leaves behind, so nothing is lost when it is rebuilt
+    private boolean isCompactSecurityContext(Object value) {
+        if (value.getClass() != SecurityContextImpl.class)
+            return false;
+        Authentication authentication = ((SecurityContext) value).getAuthentication();
+        if (authentication == null || authentication.getClass() != UsernamePasswordAuthenticationToken.class
+                || !authentication.isAuthenticated() || authentication.getCredentials() != null
+                || authentication.getDetails() != null || !(authentication.getPrincipal() instanceof CustomUser user))
+            return false;
+        if (user.getId() == null || user.getEmail() == null || user.getOrganizationId() == null)
+            return false;
+        for (GrantedAuthority authority : authentication.getAuthorities())
+            if (authority.getClass() != SimpleGrantedAuthority.class)
+                return false;
+        return true;
+    }
+
+    private void writePrincipal(DataOutputStream out, Authentication authentication) throws IOException {
+        CustomUser user = (CustomUser) authentication.getPrincipal();
+        out.writeUTF(user.getId());
+        out.writeUTF(user.getEmail());
+        out.writeUTF(user.getOrganizationId());
+        out.writeByte(user.getMfaEnabled() == null ? -1 : user.getMfaEnabled() ? 1 : 0);
+        out.writeShort(authentication.getAuthorities().size());
+        for (GrantedAuthority authority : authentication.getAuthorities())
+            out.writeUTF(authority.getAuthority());
+    }
+
+    private SecurityContext readSecurityContext(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        String email = in.readUTF();
+        String organizationId = in.readUTF();
+        byte mfaEnabled = in.readByte();
+        int authorityCount = in.readShort();
+        List<GrantedAuthority> authorities = new ArrayList<>(authorityCount);
+        for (int i = 0; i < authorityCount; i++)
+            authorities.add(new SimpleGrantedAuthority(in.readUTF()));
+
+        CustomUser user = new CustomUser(authorities, id, email, organizationId, null,
+                mfaEnabled == -1 ? null : mfaEnabled == 1);
+        return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null, authorities));
+    }
+}
@@ -1,14 +1,22 @@
 package com.credaegis.backend.configuration.session;
 
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
 import org.springframework.session.web.http.CookieSerializer;
 import org.springframework.session.web.http.DefaultCookieSerializer;
 
+import java.time.Duration;
+
 @Configuration
-@EnableRedisHttpSession
+@EnableSpringHttpSession
 public class HttpSessionConfig {
 
 
@@ -20,4 +28,33 @@ public class HttpSessionConfig {
         return serializer;
     }
 
+    @Bean
+    NearCacheSessionRepository sessionRepository(RedisConnectionFactory redisConnectionFactory,
+                                                 @Value("${session.timeout.seconds}") long timeoutSeconds,
+                                                 @Value("${session.near.cache.ttl.seconds}") long cacheTtlSeconds,
+                                                 @Value("${session.near.cache.size}") long cacheSize,
+                                                 @Value("${session.last.accessed.write.interval.seconds}") long writeIntervalSeconds) {
+        //session values are written in a compact form instead of jdk serialization, plain strings are
+        //only published on the eviction channel
+        RedisTemplate<String, Object> sessionRedisTemplate = new RedisTemplate<>();
+        sessionRedisTemplate.setConnectionFactory(redisConnectionFactory);
+        sessionRedisTemplate.setKeySerializer(RedisSerializer.string());
+        sessionRedisTemplate.setHashKeySerializer(RedisSerializer.string());
+        sessionRedisTemplate.setHashValueSerializer(new CompactSessionSerializer());
+        sessionRedisTemplate.setValueSerializer(RedisSerializer.string());
+        sessionRedisTemplate.afterPropertiesSet();
+
+        return new NearCacheSessionRepository(sessionRedisTemplate, Duration.ofSeconds(timeoutSeconds),
+                Duration.ofSeconds(cacheTtlSeconds), cacheSize, Duration.ofSeconds(writeIntervalSeconds));
+    }
+
+    @Bean
+    RedisMessageListenerContainer sessionEvictionListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                   NearCacheSessionRepository sessionRepository) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(sessionRepository, new ChannelTopic(NearCacheSessionRepository.EVICTION_CHANNEL));
+        return container;
+    }
+
 }
@@ -0,0 +1,272 @@
+package com.credaegis.backend.configuration.session;
+
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.data.redis.RedisSessionMapper;
+import org.springframework.session.data.redis.RedisSessionRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+//sessions are kept in redis in the same hash layout RedisSessionRepository uses, with a short lived copy per node
+//in front of it so most requests do not go to redis to load their session.
+//only changes are written back: new sessions, attributes, the timeout and id changes go to redis right away,
+//the last accessed time only once the write interval has passed (redis then expires the key up to that interval
+//early). a change or delete drops the local copy and is published so the other nodes drop theirs too, which
+//keeps logout and password change invalidation immediate. the ttl bounds how long a missed message goes unnoticed
+public class NearCacheSessionRepository implements SessionRepository<NearCacheSessionRepository.NearCacheSession>,
+        MessageListener {
+
+    public static final String EVICTION_CHANNEL = RedisSessionRepository.DEFAULT_KEY_NAMESPACE + ":near-cache:evictions";
+
+    private static final String SESSION_KEY_PREFIX = RedisSessionRepository.DEFAULT_KEY_NAMESPACE + ":sessions:";
+    private static final String CREATION_TIME = "creationTime";
+    private static final String LAST_ACCESSED_TIME = "lastAccessedTime";
+    private static final String MAX_INACTIVE_INTERVAL = "maxInactiveInterval";
+    private static final String ATTRIBUTE_PREFIX = "sessionAttr:";
+
+    private final RedisOperations<String, Object> sessionRedisOperations;
+    private final RedisSessionMapper redisSessionMapper = new RedisSessionMapper();
+    private final Cache<String, CachedSession> sessions;
+    private final Duration maxInactiveInterval;
+    private final Duration lastAccessedTimeWriteInterval;
+
+
+    public NearCacheSessionRepository(RedisOperations<String, Object> sessionRedisOperations,
+                                      Duration maxInactiveInterval, Duration cacheTtl, long cacheSize,
+                                      Duration lastAccessedTimeWriteInterval) {
+        this.sessionRedisOperations = sessionRedisOperations;
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.lastAccessedTimeWriteInterval = lastAccessedTimeWriteInterval;
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+
+    @Override
+    public NearCacheSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(maxInactiveInterval);
+        return new NearCacheSession(session, true, session.getLastAccessedTime());
+    }
+
+    @Override
+    public NearCacheSession findById(String id) {
+        CachedSession cached = sessions.getIfPresent(id);
+        MapSession session;
+        Instant savedLastAccessedTime;
+        if (cached != null) {
+            session = new MapSession(cached.session());
+            savedLastAccessedTime = cached.savedLastAccessedTime();
+        } else {
+            Map<String, Object> entries = sessionRedisOperations.<String, Object>opsForHash().entries(sessionKey(id));
+            if (entries.isEmpty())
+                return null;
+            session = redisSessionMapper.apply(id, entries);
+            savedLastAccessedTime = session.getLastAccessedTime();
+            sessions.put(id, new CachedSession(new MapSession(session), savedLastAccessedTime));
+        }
+
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return new NearCacheSession(session, false, savedLastAccessedTime);
+    }
+
+    @Override
+    public void save(NearCacheSession session) {
+        String id = session.getId();
+        if (session.isNew) {
+            Map<String, Object> entries = new HashMap<>();
+            entries.put(CREATION_TIME, session.getCreationTime().toEpochMilli());
+            entries.put(MAX_INACTIVE_INTERVAL, (int) session.getMaxInactiveInterval().getSeconds());
+            entries.put(LAST_ACCESSED_TIME, session.getLastAccessedTime().toEpochMilli());
+            for (String attributeName : session.getAttributeNames())
+                entries.put(ATTRIBUTE_PREFIX + attributeName, session.getAttribute(attributeName));
+            write(id, entries, List.of(), session.getMaxInactiveInterval());
+            sessions.put(id, new CachedSession(new MapSession(session.session), session.getLastAccessedTime()));
+        } else if (session.hasChanges()) {
+            if (!session.originalId.equals(id)) {
+                sessionRedisOperations.rename(sessionKey(session.originalId), sessionKey(id));
+                evict(session.originalId);
+            }
+            Map<String, Object> entries = new HashMap<>();
+            List<Object> removed = new ArrayList<>();
+            session.delta.forEach((key, value) -> {
+                if (value == null)
+                    removed.add(key);
+                else
+                    entries.put(key, value);
+            });
+            entries.put(LAST_ACCESSED_TIME, session.getLastAccessedTime().toEpochMilli());
+            write(id, entries, removed, session.getMaxInactiveInterval());
+            //other requests may be changing the same session, the next read takes the merged result from redis
+            evict(id);
+        } else if (!session.getLastAccessedTime().isBefore(
+                session.savedLastAccessedTime.plus(lastAccessedTimeWriteInterval))) {
+            write(id, Map.of(LAST_ACCESSED_TIME, session.getLastAccessedTime().toEpochMilli()), List.of(),
+                    session.getMaxInactiveInterval());
+            touch(id, session.getLastAccessedTime(), session.getLastAccessedTime());
+            session.savedLastAccessedTime = session.getLastAccessedTime();
+        } else {
+            touch(id, session.getLastAccessedTime(), null);
+        }
+
+        if (session.isNew || session.hasChanges())
+            session.savedLastAccessedTime = session.getLastAccessedTime();
+        session.isNew = false;
+        session.originalId = id;
+        session.delta.clear();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        sessionRedisOperations.delete(sessionKey(id));
+        evict(id);
+    }
+
+    //another node changed or deleted a session
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        sessions.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+
+    private void write(String id, Map<String, Object> entries, List<Object> removed, Duration maxInactiveInterval) {
+        String key = sessionKey(id);
+        sessionRedisOperations.opsForHash().putAll(key, entries);
+        if (!removed.isEmpty())
+            sessionRedisOperations.opsForHash().delete(key, removed.toArray());
+        sessionRedisOperations.expire(key, maxInactiveInterval);
+    }
+
+    //moves the local copy's last accessed time forward so it expires here the same way it would in redis
+    private void touch(String id, Instant lastAccessedTime, Instant savedLastAccessedTime) {
+        sessions.asMap().computeIfPresent(id, (key, cached) -> {
+            if (!lastAccessedTime.isAfter(cached.session().getLastAccessedTime()))
+                return cached;
+            MapSession session = new MapSession(cached.session());
+            session.setLastAccessedTime(lastAccessedTime);
+            return new CachedSession(session,
+                    savedLastAccessedTime == null ? cached.savedLastAccessedTime() : savedLastAccessedTime);
+        });
+    }
+
+    private void evict(String id) {
+        sessions.invalidate(id);
+        sessionRedisOperations.convertAndSend(EVICTION_CHANNEL, id);
+    }
+
+    private static String sessionKey(String id) {
+        return SESSION_KEY_PREFIX + id;
+    }
+
+
+    private record CachedSession(MapSession session, Instant savedLastAccessedTime) {
+    }
+
+
+    //a request's own copy of the session, recording what it changed
+    public static final class NearCacheSession implements Session {
+
+        private final MapSession session;
+        private final Map<String, Object> delta = new HashMap<>();
+        private Instant savedLastAccessedTime;
+        private boolean isNew;
+        private String originalId;
+
+
+        private NearCacheSession(MapSession session, boolean isNew, Instant savedLastAccessedTime) {
+            this.session = session;
+            this.isNew = isNew;
+            this.originalId = session.getId();
+            this.savedLastAccessedTime = savedLastAccessedTime;
+        }
+
+
+        @Override
+        public String getId() {
+            return session.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return session.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return session.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return session.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            session.setAttribute(attributeName, attributeValue);
+            delta.put(ATTRIBUTE_PREFIX + attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            session.removeAttribute(attributeName);
+            delta.put(ATTRIBUTE_PREFIX + attributeName, null);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return session.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            session.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return session.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            session.setMaxInactiveInterval(interval);
+            delta.put(MAX_INACTIVE_INTERVAL, (int) interval.getSeconds());
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return session.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return session.isExpired();
+        }
+
+
+        private boolean hasChanges() {
+            return !delta.isEmpty() || !originalId.equals(session.getId());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.credaegis.backend.constant;
+
+//fixed sizes a brand logo is stored in next to the uploaded original, longest side in pixels
+public enum BrandLogoRendition {
+    thumbnail(64),
+    header(256),
+    print(1024);
+
+    private final int maxSize;
+
+    BrandLogoRendition(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -18,6 +18,13 @@ public class Constants {
     public static final String NOTIFICATION_QUEUE_KEY = "notification";
     public static final String APPROVAL_RESPONSE_QUEUE = "APPROVAL_RESPONSE_QUEUE";
     public static final String APPROVAL_RESPONSE_QUEUE_KEY = "approval_response";
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int AUTOCOMPLETE_SIZE = 10;
+    public static final String DETAIL_PAGE_SIZE = "50";
+    public static final String ORGANIZATION_CACHE_REGION = "organizations";
+    public static final String CLUSTER_CACHE_REGION = "clusters";
+    public static final String EVENT_CACHE_REGION = "events";
+    public static final String NAME_LOOKUP_CACHE_REGION = "name-lookups";
 
 
 }
@@ -0,0 +1,6 @@
+package com.credaegis.backend.constant;
+
+public enum ExportFormat {
+    csv,
+    ndjson
+}
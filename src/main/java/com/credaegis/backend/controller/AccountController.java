@@ -1,26 +1,33 @@
 package com.credaegis.backend.controller;
 
+import com.credaegis.backend.constant.BrandLogoRendition;
 import com.credaegis.backend.constant.Constants;
 import com.credaegis.backend.configuration.security.principal.CustomUser;
+import com.credaegis.backend.dto.BrandLogoDTO;
+import com.credaegis.backend.dto.NotificationDTO;
 import com.credaegis.backend.entity.Notification;
 import com.credaegis.backend.http.request.AccountInfoModificationRequest;
 import com.credaegis.backend.http.request.PasswordChangeRequest;
 import com.credaegis.backend.http.response.api.CustomApiResponse;
 import com.credaegis.backend.http.response.custom.AccountInfoResponse;
+import com.credaegis.backend.http.response.custom.CursorPageResponse;
 import com.credaegis.backend.service.AccountService;
+import com.credaegis.backend.service.NotificationService;
 import dev.samstevens.totp.exceptions.QrGenerationException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -32,6 +39,7 @@ public class AccountController {
 
 
     private final AccountService accountService;
+    private final NotificationService notificationService;
 
 
 
@@ -43,6 +51,23 @@ public class AccountController {
         );
     }
 
+    //newest first, pass the nextCursor of the previous response, omit it for the first page
+    @GetMapping(path = "/notifications/cursor")
+    public ResponseEntity<CustomApiResponse<CursorPageResponse<NotificationDTO>>> getNotificationsAfter(@RequestParam(value = "cursor", required = false) String cursor,
+                                                                                                       @RequestParam("size") int size,
+                                                                                                       @AuthenticationPrincipal CustomUser customUser) {
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(notificationService.getNotificationsAfter(cursor, size, customUser.getId()),
+                        "Notifications", true)
+        );
+    }
+
+    //server-sent events, one "notification" event per new notification of the user
+    @GetMapping(path = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@AuthenticationPrincipal CustomUser customUser) {
+        return notificationService.subscribe(customUser.getId());
+    }
+
     @DeleteMapping(path = "/delete/notifications/{id}")
     public ResponseEntity<CustomApiResponse<Void>> deleteNotification(@AuthenticationPrincipal CustomUser customUser,
                                                                       @PathVariable String id) {
@@ -82,12 +107,19 @@ public class AccountController {
 
 
     @GetMapping(path = "/serve/brand-logo")
-    public ResponseEntity<?> serveBrandLogo(@AuthenticationPrincipal CustomUser customUser) {
-        InputStreamResource inputStreamResource = new InputStreamResource(accountService.serveBrandLogo(customUser.getId()));
+    public ResponseEntity<byte[]> serveBrandLogo(@AuthenticationPrincipal CustomUser customUser,
+                                                 @RequestParam(value = "rendition", required = false) BrandLogoRendition rendition,
+                                                 WebRequest webRequest) {
+        BrandLogoDTO brandLogo = accountService.serveBrandLogo(customUser.getId(), rendition);
+        //the url is the same for every user, so the etag names the user and the browser revalidates each time
+        if (webRequest.checkNotModified(brandLogo.getETag()))
+            return null;
         return ResponseEntity.status(HttpStatus.OK)
                 .header("Content-Disposition", "inline; filename=brand-logo.jpg")
-                .contentType(MediaType.IMAGE_JPEG)
-                .body(inputStreamResource);
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(brandLogo.getETag())
+                .contentType(brandLogo.getContentType())
+                .body(brandLogo.getContent());
     }
 
 
@@ -100,7 +132,6 @@ public class AccountController {
                                                                   HttpServletResponse response) {
 
         accountService.changePassword(passwordChangeRequest,
-                customUser.getPassword(),
                 customUser.getId(),
                 request, response);
         return ResponseEntity.status(HttpStatus.OK).body(
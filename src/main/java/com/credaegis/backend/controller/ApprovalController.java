@@ -9,6 +9,8 @@ import com.credaegis.backend.exception.custom.ExceptionFactory;
 import com.credaegis.backend.http.request.ApprovalModificationRequest;
 import com.credaegis.backend.http.request.ApprovalsIdRequest;
 import com.credaegis.backend.http.response.api.CustomApiResponse;
+import com.credaegis.backend.http.response.custom.CursorPageResponse;
+import com.credaegis.backend.http.response.custom.PageResponse;
 import com.credaegis.backend.dto.projection.ApprovalInfoProjection;
 import com.credaegis.backend.service.ApprovalService;
 import com.credaegis.backend.utility.CheckSumUtility;
@@ -23,6 +25,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -106,6 +109,82 @@ public class ApprovalController {
     }
 
 
+    //keyset paginated variants of the get-all endpoints, pass the nextCursor of the previous response
+    @GetMapping(path = "/get-all/page")
+    public ResponseEntity<CustomApiResponse<CursorPageResponse<ApprovalInfoProjection>>> getApprovalsPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                                                                                          @RequestParam("size") int size,
+                                                                                                          @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(approvalService.getApprovalsAfter(cursor, size, customUser.getOrganizationId()),
+                        "approvals fetched", true)
+        );
+    }
+
+    @GetMapping(path = "/cluster/get-all/{id}/page")
+    public ResponseEntity<CustomApiResponse<CursorPageResponse<ApprovalInfoProjection>>> getClusterApprovalsPage(@PathVariable String id,
+                                                                                                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                                                                                                 @RequestParam("size") int size,
+                                                                                                                 @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(approvalService.getClusterApprovalsAfter(id, cursor, size, customUser.getOrganizationId()),
+                        "approvals fetched", true)
+        );
+    }
+
+    @GetMapping(path = "/event/get-all/{id}/page")
+    public ResponseEntity<CustomApiResponse<CursorPageResponse<ApprovalInfoProjection>>> getEventApprovalsPage(@PathVariable String id,
+                                                                                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                                                                                               @RequestParam("size") int size,
+                                                                                                               @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(approvalService.getEventApprovalsAfter(id, cursor, size, customUser.getOrganizationId()),
+                        "approvals fetched", true)
+        );
+    }
+
+
+    //approvals of any status for one recipient, by exact email or by name
+    @GetMapping(path = "/recipient/search")
+    public ResponseEntity<CustomApiResponse<PageResponse<ApprovalInfoProjection>>> searchByRecipient(@RequestParam(value = "email", required = false) String email,
+                                                                                           @RequestParam(value = "name", required = false) String name,
+                                                                                           @RequestParam("page") int page,
+                                                                                           @RequestParam("size") int size,
+                                                                                           @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(approvalService.searchByRecipient(email, name, page, size, customUser.getOrganizationId()),
+                        "approvals fetched", true)
+        );
+    }
+
+
+    //streamed variants: same response body as get-all, written chunk by chunk while rows are read
+    @GetMapping(path = "/get-all/stream")
+    public ResponseEntity<StreamingResponseBody> streamApprovals(@AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON)
+                .body(approvalService.streamAllApprovals(customUser.getOrganizationId()));
+    }
+
+    @GetMapping(path = "/cluster/get-all/{id}/stream")
+    public ResponseEntity<StreamingResponseBody> streamClusterApprovals(@PathVariable String id,
+                                                                        @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON)
+                .body(approvalService.streamClusterApprovals(id, customUser.getOrganizationId()));
+    }
+
+    @GetMapping(path = "/event/get-all/{id}/stream")
+    public ResponseEntity<StreamingResponseBody> streamEventApprovals(@PathVariable String id,
+                                                                      @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON)
+                .body(approvalService.streamEventApprovals(id, customUser.getOrganizationId()));
+    }
+
     @GetMapping(path = "/view/{id}")
     public ResponseEntity<InputStreamResource> viewApproval(@PathVariable String id, @AuthenticationPrincipal CustomUser customUser) {
 
@@ -3,21 +3,29 @@ package com.credaegis.backend.controller;
 
 import com.credaegis.backend.configuration.security.principal.CustomUser;
 import com.credaegis.backend.constant.Constants;
+import com.credaegis.backend.constant.ExportFormat;
 import com.credaegis.backend.dto.CertificateInfoDTO;
 import com.credaegis.backend.dto.projection.CertificateInfoProjection;
 import com.credaegis.backend.entity.Certificate;
+import com.credaegis.backend.exception.custom.ExceptionFactory;
 import com.credaegis.backend.http.request.CertificateRevokeRequest;
 import com.credaegis.backend.http.response.api.CustomApiResponse;
+import com.credaegis.backend.http.response.custom.CursorPageResponse;
+import com.credaegis.backend.http.response.custom.PageResponse;
 import com.credaegis.backend.repository.CertificateRepository;
+import com.credaegis.backend.service.CertificateExportService;
 import com.credaegis.backend.service.CertificateService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import okhttp3.Response;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -29,6 +37,7 @@ public class CertificateController {
 
 
     private final CertificateService certificateService;
+    private final CertificateExportService certificateExportService;
 
 
     @GetMapping(path = "/issued/get-count")
@@ -96,4 +105,94 @@ public class CertificateController {
         );
 
     }
+
+
+    //keyset paginated variants: pass the nextCursor of the previous response, omit it for the first page
+    @GetMapping(path = "/get-latest/cursor")
+    public ResponseEntity<CustomApiResponse<CursorPageResponse<CertificateInfoProjection>>> getLatestCertificatesAfter(@RequestParam(value = "cursor", required = false) String cursor,
+                                                                                                                      @RequestParam("size") int size,
+                                                                                                                      @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(
+                        certificateService.getLatestCertificatesAfter(cursor, size, customUser.getOrganizationId()),
+                        null, true
+                )
+        );
+    }
+
+    @GetMapping(path = "/cluster/{id}/get-latest/cursor")
+    public ResponseEntity<CustomApiResponse<CursorPageResponse<CertificateInfoProjection>>> getLatestCertificatesClusterAfter(@RequestParam(value = "cursor", required = false) String cursor,
+                                                                                                                             @RequestParam("size") int size,
+                                                                                                                             @PathVariable String id,
+                                                                                                                             @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(
+                        certificateService.getLatestCertificatesClusterAfter(cursor, size, customUser.getOrganizationId(), id),
+                        null, true
+                )
+        );
+    }
+
+    @GetMapping(path = "/event/{id}/get-latest/cursor")
+    public ResponseEntity<CustomApiResponse<CursorPageResponse<CertificateInfoProjection>>> getLatestCertificatesEventAfter(@RequestParam(value = "cursor", required = false) String cursor,
+                                                                                                                           @RequestParam("size") int size,
+                                                                                                                           @PathVariable String id,
+                                                                                                                           @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(
+                        certificateService.getLatestCertificatesEventAfter(cursor, size, customUser.getOrganizationId(), id),
+                        null, true
+                )
+        );
+    }
+
+
+    @GetMapping(path = "/search")
+    public ResponseEntity<CustomApiResponse<List<CertificateInfoProjection>>> searchCertificates(@RequestParam("query") String query,
+                                                                                               @AuthenticationPrincipal CustomUser customUser) {
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(certificateService.searchCertificates(query, customUser.getOrganizationId()), null, true)
+        );
+    }
+
+    @GetMapping(path = "/recipient/search")
+    public ResponseEntity<CustomApiResponse<PageResponse<CertificateInfoProjection>>> searchByRecipient(@RequestParam(value = "email", required = false) String email,
+                                                                                              @RequestParam(value = "name", required = false) String name,
+                                                                                              @RequestParam("page") int page,
+                                                                                              @RequestParam("size") int size,
+                                                                                              @AuthenticationPrincipal CustomUser customUser) {
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(certificateService.searchByRecipient(email, name, page, size, customUser.getOrganizationId()), null, true)
+        );
+    }
+
+    @GetMapping(path = "/autocomplete")
+    public ResponseEntity<CustomApiResponse<List<String>>> autocompleteCertificateName(@RequestParam("prefix") String prefix,
+                                                                                       @AuthenticationPrincipal CustomUser customUser) {
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(certificateService.autocompleteCertificateName(prefix, customUser.getOrganizationId()), null, true)
+        );
+    }
+
+
+    //gzip compressed csv or ndjson of every issued certificate in the organization, newest first
+    @GetMapping(path = "/export")
+    public ResponseEntity<StreamingResponseBody> exportCertificates(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                                                    @AuthenticationPrincipal CustomUser customUser) {
+
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format);
+        } catch (IllegalArgumentException e) {
+            throw ExceptionFactory.customValidationError("Export format must be csv or ndjson");
+        }
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + certificateExportService.fileName(exportFormat))
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(certificateExportService.exportCertificates(customUser.getOrganizationId(), exportFormat));
+    }
 }
@@ -2,7 +2,7 @@ package com.credaegis.backend.controller;
 
 import com.credaegis.backend.constant.Constants;
 import com.credaegis.backend.configuration.security.principal.CustomUser;
-import com.credaegis.backend.entity.Cluster;
+import com.credaegis.backend.dto.ClusterSummaryDTO;
 import com.credaegis.backend.http.request.ClusterCreationRequest;
 import com.credaegis.backend.http.request.RenameRequest;
 import com.credaegis.backend.http.response.api.CustomApiResponse;
@@ -36,6 +36,14 @@ public class ClusterController {
         );
     }
 
+    @GetMapping(path = "/cluster/autocomplete")
+    public ResponseEntity<CustomApiResponse<List<ClusterSearchProjection>>> autocompleteClusterController(@RequestParam String prefix,
+                                                                                                          @AuthenticationPrincipal CustomUser customUser) {
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(clusterService.autocompleteCluster(customUser.getOrganizationId(), prefix), "Cluster List", true)
+        );
+    }
+
     @PostMapping(path = "/create")
     public ResponseEntity<CustomApiResponse<Void>> clusterCreationController(@Valid @RequestBody ClusterCreationRequest clusterCreationRequest,
                                                                              @AuthenticationPrincipal CustomUser customUser) {
@@ -116,17 +124,23 @@ public class ClusterController {
 
 
     @GetMapping(path = "/get-all")
-    public ResponseEntity<CustomApiResponse<List<Cluster>>> getAllClusters(@AuthenticationPrincipal CustomUser customUser) {
-        List<Cluster> clusters = clusterService.getAllClusters(customUser.getOrganizationId());
+    public ResponseEntity<CustomApiResponse<List<ClusterSummaryDTO>>> getAllClusters(@AuthenticationPrincipal CustomUser customUser) {
+        List<ClusterSummaryDTO> clusters = clusterService.getAllClusters(customUser.getOrganizationId());
         return ResponseEntity.status(HttpStatus.OK).body(
                 new CustomApiResponse<>(clusters,"Cluster List", true)
         );
     }
 
-    //get all related info of one cluster
+    //get all related info of one cluster, events and members are paged separately
     @GetMapping(path = "/get-one/{id}")
-    public ResponseEntity<CustomApiResponse<ClusterInfoResponse>> getOneCluster(@PathVariable String id, @AuthenticationPrincipal CustomUser customUser) {
-        ClusterInfoResponse clusterInfoResponse = clusterService.getOneCluster(customUser.getOrganizationId(), id);
+    public ResponseEntity<CustomApiResponse<ClusterInfoResponse>> getOneCluster(@PathVariable String id,
+                                                                                @RequestParam(value = "eventPage", defaultValue = "0") int eventPage,
+                                                                                @RequestParam(value = "eventSize", defaultValue = Constants.DETAIL_PAGE_SIZE) int eventSize,
+                                                                                @RequestParam(value = "memberPage", defaultValue = "0") int memberPage,
+                                                                                @RequestParam(value = "memberSize", defaultValue = Constants.DETAIL_PAGE_SIZE) int memberSize,
+                                                                                @AuthenticationPrincipal CustomUser customUser) {
+        ClusterInfoResponse clusterInfoResponse = clusterService.getOneCluster(customUser.getOrganizationId(), id,
+                eventPage, eventSize, memberPage, memberSize);
         return ResponseEntity.status(HttpStatus.OK).body(
                 new CustomApiResponse<>(clusterInfoResponse,"details of cluster "+
                         clusterInfoResponse.getClusterInfo().getName()+" fetched", true)
@@ -42,12 +42,21 @@ public class EventController {
         );
     }
 
+    @GetMapping(path = "/event/autocomplete")
+    public ResponseEntity<CustomApiResponse<List<EventSearchProjection>>> autocompleteEvent(@RequestParam String prefix,
+                                                                                            @RequestParam(required = false) String clusterId,
+                                                                                            @AuthenticationPrincipal CustomUser customUser) {
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(eventService.autocompleteEvent(prefix, clusterId, customUser.getOrganizationId()), "Events fetched", true)
+        );
+    }
+
     @PostMapping(path = "/create")
     public ResponseEntity<CustomApiResponse<Void>> createEvent(@RequestBody @Valid EventCreationRequest eventCreationRequest,
                                                                @AuthenticationPrincipal CustomUser customUser) {
 
 
-        eventService.createEvent(eventCreationRequest, customUser.getId());
+        eventService.createEvent(eventCreationRequest, customUser.getId(), customUser.getOrganizationId());
         return ResponseEntity.status(HttpStatus.CREATED).body(new CustomApiResponse<>(null,
                 "Event Successfully created", true));
 
@@ -0,0 +1,100 @@
+package com.credaegis.backend.controller;
+
+
+import com.credaegis.backend.configuration.security.principal.CustomUser;
+import com.credaegis.backend.constant.Constants;
+import com.credaegis.backend.constant.TrendInterval;
+import com.credaegis.backend.dto.CertificateStatisticsDTO;
+import com.credaegis.backend.dto.ClusterStatisticsDTO;
+import com.credaegis.backend.dto.EventStatisticDTO;
+import com.credaegis.backend.dto.OrganizationStatisticDTO;
+import com.credaegis.backend.dto.StatisticTrendDTO;
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import com.credaegis.backend.http.response.api.CustomApiResponse;
+import com.credaegis.backend.service.StatisticService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.sql.Date;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = Constants.ROUTEV1 + "/statistic-control")
+@AllArgsConstructor
+public class StatisticController {
+
+
+    private final StatisticService statisticService;
+
+
+    @GetMapping(path = "/certificates")
+    public ResponseEntity<CustomApiResponse<CertificateStatisticsDTO>> getCertificateStatistics(@AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(statisticService.getCertificateStatistics(customUser.getOrganizationId()),
+                        "certificate statistics fetched", true)
+        );
+    }
+
+    @GetMapping(path = "/organization")
+    public ResponseEntity<CustomApiResponse<OrganizationStatisticDTO>> getOrganizationStatistics(@AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(statisticService.getOrganizationStatistics(customUser.getOrganizationId()),
+                        "organization statistics fetched", true)
+        );
+    }
+
+    @GetMapping(path = "/cluster/get-all")
+    public ResponseEntity<CustomApiResponse<List<ClusterStatisticsDTO>>> getClusterStatistics(@AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(statisticService.getClusterStatistics(customUser.getOrganizationId()),
+                        "cluster statistics fetched", true)
+        );
+    }
+
+    @GetMapping(path = "/cluster/{id}/event/get-all")
+    public ResponseEntity<CustomApiResponse<List<EventStatisticDTO>>> getEventStatistics(@PathVariable String id,
+                                                                                         @AuthenticationPrincipal CustomUser customUser) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(statisticService.getEventStatistics(id, customUser.getOrganizationId()),
+                        "event statistics fetched", true)
+        );
+    }
+
+    //id is an organization, cluster or event id of the caller's organization, the organization itself when left out
+    @GetMapping(path = "/trend")
+    public ResponseEntity<CustomApiResponse<List<StatisticTrendDTO>>> getTrend(@RequestParam(value = "id", required = false) String id,
+                                                                               @RequestParam("from") Date from,
+                                                                               @RequestParam("to") Date to,
+                                                                               @RequestParam(value = "interval", defaultValue = "day") String interval,
+                                                                               @AuthenticationPrincipal CustomUser customUser) {
+
+        TrendInterval trendInterval;
+        try {
+            trendInterval = TrendInterval.valueOf(interval);
+        } catch (IllegalArgumentException e) {
+            throw ExceptionFactory.customValidationError("Interval must be day or week");
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(statisticService.getTrend(id, customUser.getOrganizationId(), from, to, trendInterval),
+                        "trend fetched", true)
+        );
+    }
+
+    //recounts the organization's counters from scratch, same as the nightly reconciliation
+    @PostMapping(path = "/rebuild")
+    public ResponseEntity<CustomApiResponse<Void>> rebuild(@AuthenticationPrincipal CustomUser customUser) {
+
+        statisticService.rebuild(customUser.getOrganizationId());
+        return ResponseEntity.status(HttpStatus.OK).body(
+                new CustomApiResponse<>(null, "statistics rebuilt", true)
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package com.credaegis.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.MediaType;
+
+@Data
+@AllArgsConstructor
+public class BrandLogoDTO {
+
+    private String eTag;
+    private MediaType contentType;
+    private byte[] content;
+}
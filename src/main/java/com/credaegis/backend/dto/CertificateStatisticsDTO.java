@@ -13,5 +13,6 @@ public class CertificateStatisticsDTO {
     private Long expiredCertificateCount;
     private Long revokedCertificateCount;
     private Long rejectedCertificateCount;
+    private Long pendingCertificateCount;
 
 }
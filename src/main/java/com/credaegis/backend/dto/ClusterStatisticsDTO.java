@@ -11,8 +11,11 @@ import lombok.NoArgsConstructor;
 @Builder
 public class ClusterStatisticsDTO {
 
+    private String id;
     private String name;
     private Long issuedCertificateCount;
     private Long revokedCertificateCount;
     private Long rejectedCertificateCount;
+    private Long expiredCertificateCount;
+    private Long pendingCertificateCount;
 }
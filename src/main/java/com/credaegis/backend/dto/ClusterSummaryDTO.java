@@ -0,0 +1,25 @@
+package com.credaegis.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClusterSummaryDTO {
+    private String id;
+    private String name;
+    private Boolean locked;
+    private Boolean deactivated;
+    private Timestamp createdOn;
+    private String adminId;
+    private String adminName;
+    private String adminEmail;
+    private Long eventCount;
+    private Long memberCount;
+    private Long issuedCount;
+    private Long revokedCount;
+}
@@ -12,7 +12,12 @@ import lombok.NoArgsConstructor;
 @Builder
 public class EventStatisticDTO {
 
+    private String id;
     private String name;
     private String clusterName;
     private Long issuedCertificateCount;
+    private Long revokedCertificateCount;
+    private Long rejectedCertificateCount;
+    private Long expiredCertificateCount;
+    private Long pendingCertificateCount;
 }
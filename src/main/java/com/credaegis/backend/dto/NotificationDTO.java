@@ -0,0 +1,22 @@
+package com.credaegis.backend.dto;
+
+
+import com.credaegis.backend.entity.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class NotificationDTO {
+
+    private String id;
+    private String message;
+    private NotificationType type;
+    private Timestamp timestamp;
+}
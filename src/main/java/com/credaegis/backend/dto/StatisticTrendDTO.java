@@ -0,0 +1,19 @@
+package com.credaegis.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatisticTrendDTO {
+
+    //first day of the bucket, a monday for weekly buckets
+    private Date bucketDate;
+    private Long issuedCertificateCount;
+    private Long revokedCertificateCount;
+
+}
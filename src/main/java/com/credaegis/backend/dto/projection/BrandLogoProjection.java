@@ -0,0 +1,7 @@
+package com.credaegis.backend.dto.projection;
+
+public interface BrandLogoProjection {
+
+    public Boolean getBrandLogoEnabled();
+    public Integer getBrandLogoVersion();
+}
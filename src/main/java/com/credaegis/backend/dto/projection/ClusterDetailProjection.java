@@ -0,0 +1,16 @@
+package com.credaegis.backend.dto.projection;
+
+import java.sql.Timestamp;
+
+public interface ClusterDetailProjection {
+
+    public String getId();
+    public String getName();
+    public Boolean getLocked();
+    public Boolean getDeactivated();
+    public Timestamp getCreatedOn();
+    public String getOrganizationId();
+    public String getAdminId();
+    public String getAdminName();
+    public String getAdminEmail();
+}
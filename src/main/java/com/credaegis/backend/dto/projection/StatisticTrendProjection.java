@@ -0,0 +1,10 @@
+package com.credaegis.backend.dto.projection;
+
+import java.sql.Date;
+
+public interface StatisticTrendProjection {
+
+    public Date getBucketDate();
+    public Long getIssuedCount();
+    public Long getRevokedCount();
+}
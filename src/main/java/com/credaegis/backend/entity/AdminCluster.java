@@ -18,12 +18,12 @@ public class AdminCluster  {
     @Id
     private String id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "admin_id",nullable = false)
     @JsonBackReference
     private User user;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cluster_id",nullable = false)
     @JsonBackReference
     private Cluster cluster;
@@ -1,6 +1,7 @@
 package com.credaegis.backend.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.annotation.Nullable;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -10,6 +11,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.io.Serializable;
 import java.sql.Date;
 import java.sql.Timestamp;
+import java.util.Locale;
 
 
 @Data
@@ -41,11 +43,22 @@ public class Approval  {
     @Enumerated(EnumType.STRING)
     private Status status;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
     @JsonBackReference
     private Event event;
 
+    //copied from the event's cluster so tenant scoped queries skip the event -> cluster join
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cluster_id", nullable = false)
+    @JsonIgnore
+    private Cluster cluster;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "organization_id", nullable = false)
+    @JsonIgnore
+    private Organization organization;
+
 
     @CreationTimestamp
     @Column(name = "created_on",updatable = false)
@@ -55,5 +68,14 @@ public class Approval  {
     @Column(name = "updated_on")
     private Timestamp updatedOn;
 
+
+    //emails are matched exactly by the recipient search, so they are stored in one form
+    @PrePersist
+    @PreUpdate
+    private void normalizeRecipientEmail() {
+        if (recipientEmail != null)
+            recipientEmail = recipientEmail.strip().toLowerCase(Locale.ROOT);
+    }
+
 }
 
@@ -2,6 +2,7 @@ package com.credaegis.backend.entity;
 
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +11,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.sql.Date;
 import java.sql.Timestamp;
+import java.util.Locale;
 
 @Entity
 @Table(name = "certificates")
@@ -48,16 +50,27 @@ public class Certificate  {
     private String comments;
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="user_id",nullable = false)
     @JsonBackReference
     private User issuedByUser;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name  = "event_id",nullable = false)
     @JsonBackReference
     private Event event;
 
+    //copied from the event's cluster so tenant scoped queries skip the event -> cluster join
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cluster_id", nullable = false)
+    @JsonIgnore
+    private Cluster cluster;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "organization_id", nullable = false)
+    @JsonIgnore
+    private Organization organization;
+
     @CreationTimestamp
     @Column(name = "created_on",updatable = false)
     private Timestamp createdOn;
@@ -67,5 +80,14 @@ public class Certificate  {
     private Timestamp updatedOn;
 
 
+    //emails are matched exactly by the recipient search, so they are stored in one form
+    @PrePersist
+    @PreUpdate
+    private void normalizeRecipientEmail() {
+        if (recipientEmail != null)
+            recipientEmail = recipientEmail.strip().toLowerCase(Locale.ROOT);
+    }
+
+
 
 }
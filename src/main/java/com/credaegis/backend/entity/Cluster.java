@@ -1,11 +1,14 @@
 package com.credaegis.backend.entity;
 
+import com.credaegis.backend.constant.Constants;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -18,6 +21,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @Table (name = "clusters")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.CLUSTER_CACHE_REGION)
 public class Cluster  {
 
     @Id
@@ -42,7 +46,7 @@ public class Cluster  {
     @Column(name = "updated_on")
     private Timestamp updatedOn;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @JoinColumn(name = "organization_id",nullable = false)
     private Organization organization;
@@ -1,11 +1,14 @@
 package com.credaegis.backend.entity;
 
+import com.credaegis.backend.constant.Constants;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -18,6 +21,7 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Table (name = "events")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.EVENT_CACHE_REGION)
 public class Event {
 
     @Id
@@ -40,7 +44,7 @@ public class Event {
     private List<Approval> approvals = new ArrayList<>();
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by",nullable = false)
     @JsonBackReference
     private User createdBy;
@@ -59,7 +63,7 @@ public class Event {
     @Column(name = "created_on",updatable = false)
     private Timestamp createdOn;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cluster_id",nullable = false)
     @JsonBackReference
     private Cluster cluster;
@@ -32,7 +32,7 @@ public class Notification {
         @Column(name = "timestamp",nullable = false)
         private Timestamp timestamp;
 
-        @ManyToOne
+        @ManyToOne(fetch = FetchType.LAZY)
         @JsonBackReference
         @JoinColumn(name = "user_id")
         private User user;
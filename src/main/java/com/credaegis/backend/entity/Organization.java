@@ -1,16 +1,20 @@
 package com.credaegis.backend.entity;
 
 
+import com.credaegis.backend.constant.Constants;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.List;
 
 @Entity
 @Table (name = "organizations")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.ORGANIZATION_CACHE_REGION)
 @Data
 @NoArgsConstructor
 public class Organization  {
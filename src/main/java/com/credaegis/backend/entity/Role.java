@@ -22,7 +22,7 @@ public class Role  {
     @Column(nullable = false)
     private String role;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id",nullable = false)
     @JsonBackReference
     private User user;
@@ -0,0 +1,50 @@
+package com.credaegis.backend.entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+
+//running counters of one organization, cluster or event. only written through the native upserts in
+//StatisticCounterRepository so concurrent changes add up instead of overwriting each other
+@Entity
+@Table(name = "statistic_counters")
+@Data
+@NoArgsConstructor
+public class StatisticCounter {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StatisticScope scope;
+
+    @Column(name = "organization_id", nullable = false)
+    private String organizationId;
+
+    @Column(name = "cluster_id")
+    private String clusterId;
+
+    @Column(name = "issued_count", nullable = false)
+    private Long issuedCount = 0L;
+
+    @Column(name = "revoked_count", nullable = false)
+    private Long revokedCount = 0L;
+
+    @Column(name = "expired_count", nullable = false)
+    private Long expiredCount = 0L;
+
+    @Column(name = "rejected_count", nullable = false)
+    private Long rejectedCount = 0L;
+
+    @Column(name = "pending_count", nullable = false)
+    private Long pendingCount = 0L;
+
+    @Column(name = "updated_on", insertable = false, updatable = false)
+    private Timestamp updatedOn;
+
+}
@@ -0,0 +1,44 @@
+package com.credaegis.backend.entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Date;
+
+
+//issued and revoked certificates of one organization, cluster or event on one day.
+//like StatisticCounter it is only written through native upserts in StatisticRollupRepository
+@Entity
+@Table(name = "statistic_rollups")
+@IdClass(StatisticRollupId.class)
+@Data
+@NoArgsConstructor
+public class StatisticRollup {
+
+    @Id
+    @Column(name = "scope_id")
+    private String scopeId;
+
+    @Id
+    @Column(name = "bucket_date")
+    private Date bucketDate;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StatisticScope scope;
+
+    @Column(name = "organization_id", nullable = false)
+    private String organizationId;
+
+    @Column(name = "cluster_id")
+    private String clusterId;
+
+    @Column(name = "issued_count", nullable = false)
+    private Long issuedCount = 0L;
+
+    @Column(name = "revoked_count", nullable = false)
+    private Long revokedCount = 0L;
+
+}
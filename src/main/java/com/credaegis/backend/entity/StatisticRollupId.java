@@ -0,0 +1,18 @@
+package com.credaegis.backend.entity;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.sql.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatisticRollupId implements Serializable {
+
+    private String scopeId;
+    private Date bucketDate;
+}
@@ -0,0 +1,7 @@
+package com.credaegis.backend.entity;
+
+public enum StatisticScope {
+    organization,
+    cluster,
+    event
+}
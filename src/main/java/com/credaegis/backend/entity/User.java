@@ -43,19 +43,22 @@ public class  User {
     @Column(name = "brand_logo_enabled", nullable = false)
     private Boolean brandLogoEnabled = false;
 
+    @Column(name = "brand_logo_version", nullable = false)
+    private Integer brandLogoVersion = 0;
+
     @Column(nullable = false)
     private Boolean deactivated = false;
 
     @Column(nullable = false)
     private boolean deleted = false;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "organization_id",nullable = false)
     @JsonBackReference
     private Organization organization;
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="cluster_id")
     @JsonBackReference
     private Cluster cluster;
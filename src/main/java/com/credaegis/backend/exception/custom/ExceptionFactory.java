@@ -25,4 +25,12 @@ public  class ExceptionFactory {
     public static RuntimeException resourceNotFound() throws  CustomException{
         return new CustomException("Resource not found",HttpStatus.NOT_FOUND);
     }
+
+    public static RuntimeException serviceUnavailable(String message) throws CustomException{
+        return new CustomException(message,HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    public static RuntimeException tooManyRequests(String message) throws CustomException{
+        return new CustomException(message,HttpStatus.TOO_MANY_REQUESTS);
+    }
 }
@@ -11,12 +11,13 @@ import com.credaegis.backend.repository.ApprovalRepository;
 import com.credaegis.backend.repository.CertificateRepository;
 import com.credaegis.backend.repository.NotificationRepository;
 import com.credaegis.backend.repository.UserRepository;
+import com.credaegis.backend.service.NotificationService;
+import com.credaegis.backend.service.StatisticService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.f4b6a3.ulid.UlidCreator;
 import com.rabbitmq.client.Channel;
 import io.minio.MinioClient;
 import io.minio.RemoveObjectArgs;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -24,10 +25,10 @@ import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.sql.Date;
-import java.sql.Timestamp;
 
 
 @Component
@@ -41,6 +42,8 @@ public class RabbitMqListeners {
     private final CertificateRepository certificateRepository;
     private final MinioClient minioClient;
     private final UserRepository userRepository;
+    private final StatisticService statisticService;
+    private final NotificationService notificationService;
 
 
 //    @RabbitListener(queues = Constants.NOTIFICATION_QUEUE)
@@ -86,18 +89,13 @@ public class RabbitMqListeners {
                         approval.getRecipientName() + "," + "" + approval.getRecipientEmail() +
                         " is already issued and checksum found, rejected this certificate.";
 
+                Status previousStatus = approval.getStatus();
                 approval.setStatus(Status.rejected);
-                Notification notification = new Notification();
-                notification.setId(UlidCreator.getUlid().toString());
-                notification.setMessage(errorMessage);
-                notification.setTimestamp(new Timestamp(System.currentTimeMillis()));
-                notification.setUser(user);
-                notification.setType(NotificationType.ERROR);
-                notificationRepository.save(notification);
-                notificationRepository.save(notification);
+                notificationService.notify(user, errorMessage, NotificationType.ERROR);
                 approvalRepository.save(approval);
+                statisticService.approvalStatusChanged(approval, previousStatus);
 
-                String approvalPath = approval.getEvent().getCluster().getId() + "/"
+                String approvalPath = approval.getCluster().getId() + "/"
                         + approval.getEvent().getId() + "/" + approval.getId();
 
                 minioClient.removeObject(RemoveObjectArgs.builder()
@@ -118,11 +116,16 @@ public class RabbitMqListeners {
             certificate.setRecipientEmail(approval.getRecipientEmail());
             certificate.setIssuedDate(new Date(System.currentTimeMillis()));
             certificate.setEvent(approval.getEvent());
+            certificate.setCluster(approval.getCluster());
+            certificate.setOrganization(approval.getOrganization());
+            certificate.setExpiryDate(approval.getExpiryDate());
             certificate.setIssuedByUser(user);
+            Status previousStatus = approval.getStatus();
             approval.setStatus(Status.approved);
 
             approvalRepository.save(approval);
             certificateRepository.save(certificate);
+            statisticService.approvalStatusChanged(approval, previousStatus);
 
             }
 
@@ -20,6 +20,8 @@ public class ClusterInfoResponse {
     private AdminClusterInfoDTO adminInfo;
     private List<EventInfoDTO> events;
     private List<MemberInfoDTO> members;
+    private Boolean eventsHasNext;
+    private Boolean membersHasNext;
 
 
 }
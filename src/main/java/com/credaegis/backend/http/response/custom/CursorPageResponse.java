@@ -0,0 +1,22 @@
+package com.credaegis.backend.http.response.custom;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+
+    private List<T> content;
+
+    //pass back as the cursor parameter to get the next page, null on the last page
+    private String nextCursor;
+    private Boolean hasNext;
+
+}
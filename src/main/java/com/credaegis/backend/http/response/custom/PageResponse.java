@@ -0,0 +1,22 @@
+package com.credaegis.backend.http.response.custom;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+
+
+    private List<T> content;
+
+    //ask for page + 1 while this is true
+    private Integer page;
+    private Boolean hasNext;
+
+}
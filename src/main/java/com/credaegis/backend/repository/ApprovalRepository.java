@@ -5,7 +5,11 @@ import com.credaegis.backend.entity.Cluster;
 import com.credaegis.backend.entity.Event;
 import com.credaegis.backend.entity.Status;
 import com.credaegis.backend.dto.projection.ApprovalInfoProjection;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,11 +20,17 @@ public interface ApprovalRepository extends JpaRepository<Approval, String> {
 
 
 
-    Long countByEvent_Cluster_Organization_IdAndStatus(String organizationId, Status status);
+    Long countByOrganization_IdAndStatus(String organizationId, Status status);
+
+
+    //locks the approvals a reject will change so the statistic counters see their status before the update
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Approval a WHERE a.id in :appIds AND a.organization.id = :id AND a.status <> 'rejected'")
+    List<Approval> findRejectable(@Param("id") String userOrganizationId, @Param("appIds") List<String> approvalIds);
 
 
     @Modifying
-    @Query("UPDATE Approval a SET a.status = 'rejected' WHERE a.id in :appIds AND a.event.cluster.organization.id = :id")
+    @Query("UPDATE Approval a SET a.status = 'rejected' WHERE a.id in :appIds AND a.organization.id = :id AND a.status <> 'rejected'")
     void rejectCertificates(@Param("id") String userOrganizationId, @Param("appIds") List<String> approvalIds);
 
 
@@ -28,9 +38,9 @@ public interface ApprovalRepository extends JpaRepository<Approval, String> {
             "a.recipientName  AS recipientName,a.recipientEmail AS recipientEmail," +
             "a.expiryDate AS expiryDate,a.comments AS comment,a.status AS status," +
             "a.createdOn AS createdOn,a.updatedOn AS updatedOn," +
-            "a.event.cluster.name AS clusterName,a.event.cluster.organization.name AS organizationName," +
-            "a.event.name AS eventName,a.event.id AS eventId,a.event.cluster.id AS clusterId " +
-            "FROM Approval a WHERE  a.status = :status AND a.event.cluster.organization.id = :userOrganizationId")
+            "a.cluster.name AS clusterName,a.organization.name AS organizationName," +
+            "a.event.name AS eventName,a.event.id AS eventId,a.cluster.id AS clusterId " +
+            "FROM Approval a WHERE  a.status = :status AND a.organization.id = :userOrganizationId")
     List<ApprovalInfoProjection> getApprovalInfo(@Param("status")
     Status status, @Param("userOrganizationId") String userOrganizationId);
 
@@ -39,9 +49,9 @@ public interface ApprovalRepository extends JpaRepository<Approval, String> {
             "a.recipientName  AS recipientName,a.recipientEmail AS recipientEmail," +
             "a.expiryDate AS expiryDate,a.comments AS comment,a.status AS status," +
             "a.createdOn AS createdOn,a.updatedOn AS updatedOn," +
-            "a.event.cluster.name AS clusterName,a.event.cluster.organization.name AS organizationName," +
-            "a.event.name AS eventName,a.event.id AS eventId,a.event.cluster.id AS clusterId " +
-            "FROM Approval a WHERE a.event.cluster = :cluster AND a.status = :status")
+            "a.cluster.name AS clusterName,a.organization.name AS organizationName," +
+            "a.event.name AS eventName,a.event.id AS eventId,a.cluster.id AS clusterId " +
+            "FROM Approval a WHERE a.cluster = :cluster AND a.status = :status")
     List<ApprovalInfoProjection> getApprovalInfoByClusterAndStatus(Cluster cluster, Status status);
 
 
@@ -49,10 +59,85 @@ public interface ApprovalRepository extends JpaRepository<Approval, String> {
             "a.recipientName  AS recipientName,a.recipientEmail AS recipientEmail," +
             "a.expiryDate AS expiryDate,a.comments AS comment,a.status AS status," +
             "a.createdOn AS createdOn,a.updatedOn AS updatedOn," +
-            "a.event.cluster.name AS clusterName,a.event.cluster.organization.name AS organizationName," +
-            "a.event.name AS eventName,a.event.id AS eventId,a.event.cluster.id AS clusterId " +
+            "a.cluster.name AS clusterName,a.organization.name AS organizationName," +
+            "a.event.name AS eventName,a.event.id AS eventId,a.cluster.id AS clusterId " +
             "FROM Approval a WHERE a.event = :event AND a.status = :status")
     List<ApprovalInfoProjection> getApprovalInfoByEventAndStatus(Event event, Status status);
 
 
+    //keyset pages ordered by the ulid id, which is also creation order
+    @Query("SELECT a.id AS id,a.approvalCertificateName AS approvalCertificateName," +
+            "a.recipientName  AS recipientName,a.recipientEmail AS recipientEmail," +
+            "a.expiryDate AS expiryDate,a.comments AS comment,a.status AS status," +
+            "a.createdOn AS createdOn,a.updatedOn AS updatedOn," +
+            "a.cluster.name AS clusterName,a.organization.name AS organizationName," +
+            "a.event.name AS eventName,a.event.id AS eventId,a.cluster.id AS clusterId " +
+            "FROM Approval a WHERE a.status = :status AND a.organization.id = :userOrganizationId AND a.id > :afterId " +
+            "ORDER BY a.id")
+    Slice<ApprovalInfoProjection> getApprovalInfoAfter(@Param("status") Status status,
+                                                       @Param("userOrganizationId") String userOrganizationId,
+                                                       @Param("afterId") String afterId, Pageable pageable);
+
+
+    @Query("SELECT a.id AS id,a.approvalCertificateName AS approvalCertificateName," +
+            "a.recipientName  AS recipientName,a.recipientEmail AS recipientEmail," +
+            "a.expiryDate AS expiryDate,a.comments AS comment,a.status AS status," +
+            "a.createdOn AS createdOn,a.updatedOn AS updatedOn," +
+            "a.cluster.name AS clusterName,a.organization.name AS organizationName," +
+            "a.event.name AS eventName,a.event.id AS eventId,a.cluster.id AS clusterId " +
+            "FROM Approval a WHERE a.cluster = :cluster AND a.status = :status AND a.id > :afterId ORDER BY a.id")
+    Slice<ApprovalInfoProjection> getApprovalInfoByClusterAndStatusAfter(@Param("cluster") Cluster cluster, @Param("status") Status status,
+                                                                         @Param("afterId") String afterId, Pageable pageable);
+
+
+    @Query("SELECT a.id AS id,a.approvalCertificateName AS approvalCertificateName," +
+            "a.recipientName  AS recipientName,a.recipientEmail AS recipientEmail," +
+            "a.expiryDate AS expiryDate,a.comments AS comment,a.status AS status," +
+            "a.createdOn AS createdOn,a.updatedOn AS updatedOn," +
+            "a.cluster.name AS clusterName,a.organization.name AS organizationName," +
+            "a.event.name AS eventName,a.event.id AS eventId,a.cluster.id AS clusterId " +
+            "FROM Approval a WHERE a.event = :event AND a.status = :status AND a.id > :afterId ORDER BY a.id")
+    Slice<ApprovalInfoProjection> getApprovalInfoByEventAndStatusAfter(@Param("event") Event event, @Param("status") Status status,
+                                                                       @Param("afterId") String afterId, Pageable pageable);
+
+
+    //recipient search over approvals of every status, email is matched exactly in its normalized form
+    @Query("SELECT a.id AS id,a.approvalCertificateName AS approvalCertificateName," +
+            "a.recipientName  AS recipientName,a.recipientEmail AS recipientEmail," +
+            "a.expiryDate AS expiryDate,a.comments AS comment,a.status AS status," +
+            "a.createdOn AS createdOn,a.updatedOn AS updatedOn," +
+            "a.cluster.name AS clusterName,a.organization.name AS organizationName," +
+            "a.event.name AS eventName,a.event.id AS eventId,a.cluster.id AS clusterId " +
+            "FROM Approval a WHERE a.organization.id = :userOrganizationId AND a.recipientEmail = :email ORDER BY a.id DESC")
+    Slice<ApprovalInfoProjection> searchByRecipientEmail(@Param("email") String email,
+                                                         @Param("userOrganizationId") String userOrganizationId,
+                                                         Pageable pageable);
+
+
+    @Query("SELECT a.id AS id,a.approvalCertificateName AS approvalCertificateName," +
+            "a.recipientName  AS recipientName,a.recipientEmail AS recipientEmail," +
+            "a.expiryDate AS expiryDate,a.comments AS comment,a.status AS status," +
+            "a.createdOn AS createdOn,a.updatedOn AS updatedOn," +
+            "a.cluster.name AS clusterName,a.organization.name AS organizationName," +
+            "a.event.name AS eventName,a.event.id AS eventId,a.cluster.id AS clusterId " +
+            "FROM Approval a WHERE a.organization.id = :userOrganizationId AND a.recipientName LIKE :prefix " +
+            "ORDER BY a.recipientName, a.id")
+    Slice<ApprovalInfoProjection> searchByRecipientNamePrefix(@Param("prefix") String prefix,
+                                                              @Param("userOrganizationId") String userOrganizationId,
+                                                              Pageable pageable);
+
+
+    @Query(nativeQuery = true, value = "SELECT a.id AS id,a.approval_certificate_name AS approvalCertificateName," +
+            "a.recipient_name AS recipientName,a.recipient_email AS recipientEmail," +
+            "a.expiry_date AS expiryDate,a.comments AS comment,a.approval_status AS status," +
+            "a.created_on AS createdOn,a.updated_on AS updatedOn," +
+            "c.name AS clusterName,o.name AS organizationName," +
+            "e.name AS eventName,e.id AS eventId,c.id AS clusterId " +
+            "FROM approvals a INNER JOIN events e ON e.id = a.event_id INNER JOIN clusters c ON c.id = a.cluster_id " +
+            "INNER JOIN organizations o ON o.id = a.organization_id WHERE a.organization_id = :userOrganizationId " +
+            "AND MATCH(a.recipient_name) AGAINST (:phrase IN BOOLEAN MODE) " +
+            "ORDER BY MATCH(a.recipient_name) AGAINST (:phrase IN BOOLEAN MODE) DESC, a.id DESC")
+    Slice<ApprovalInfoProjection> searchByRecipientName(@Param("phrase") String phrase,
+                                                        @Param("userOrganizationId") String userOrganizationId,
+                                                        Pageable pageable);
 }
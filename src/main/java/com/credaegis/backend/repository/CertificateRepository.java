@@ -4,23 +4,39 @@ import com.credaegis.backend.dto.CertificateInfoDTO;
 import com.credaegis.backend.dto.projection.CertificateInfoProjection;
 import com.credaegis.backend.entity.Certificate;
 import com.credaegis.backend.entity.Organization;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.sql.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public interface  CertificateRepository extends JpaRepository<Certificate,String> {
-    Optional<Certificate> findByCertificateHash(String hashedValue);
+    boolean existsByCertificateHash(String hashedValue);
 
+    //verification shows the event, cluster and organization names, they come in the same select
+    @EntityGraph(attributePaths = {"event", "cluster", "organization"})
+    Optional<Certificate> findWithDetailsByCertificateHash(String hashedValue);
+
+    //locks the certificates a revoke will change so the statistic counters only count each revocation once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Certificate c WHERE c.id IN :ids AND c.organization.id = :organizationId AND c.revoked = false")
+    List<Certificate> findRevocable(@Param("ids") List<String> certificateIds, @Param("organizationId") String organizationId);
+
+    //the revoked date comes from the caller, the same day the statistic rollup counts the revocation in
     @Modifying
-    @Query("UPDATE Certificate c SET c.revoked = true, c.revokedDate = CURRENT_DATE WHERE c.id IN :ids AND c.event.cluster.organization.id = :organizationId")
-    void revokeCertificates(@Param("ids") List<String> certificateIds,@Param("organizationId") String organizationId);
+    @Query("UPDATE Certificate c SET c.revoked = true, c.revokedDate = :revokedDate WHERE c.id IN :ids AND c.organization.id = :organizationId AND c.revoked = false")
+    void revokeCertificates(@Param("ids") List<String> certificateIds,@Param("organizationId") String organizationId,
+                            @Param("revokedDate") Date revokedDate);
 
 
 
@@ -29,8 +45,8 @@ public interface  CertificateRepository extends JpaRepository<Certificate,String
                     "c.certificateName AS certificateName,c.issuedDate AS issuedDate," +
                     "c.expiryDate AS expiryDate,c.revoked AS revoked,c.revokedDate as revokedDate," +
                     "c.issuedByUser.username AS issuerName,c.issuedByUser.email AS issuerEmail," +
-                    "c.comments AS comment,c.event.name AS eventName,c.event.cluster.name AS clusterName" +
-                    "  FROM Certificate c WHERE c.event.cluster.organization.id = :organizationId")
+                    "c.comments AS comments,c.event.name AS eventName,c.cluster.name AS clusterName" +
+                    "  FROM Certificate c WHERE c.organization.id = :organizationId")
     Page<CertificateInfoProjection> getLatestCertificateInfo(Pageable pageable, @Param("organizationId") String organizationId);
 
 
@@ -39,8 +55,8 @@ public interface  CertificateRepository extends JpaRepository<Certificate,String
                     "c.certificateName AS certificateName,c.issuedDate AS issuedDate," +
                     "c.expiryDate AS expiryDate,c.revoked AS revoked,c.revokedDate as revokedDate," +
                     "c.issuedByUser.username AS issuerName,c.issuedByUser.email AS issuerEmail," +
-                    "c.comments AS comment,c.event.name AS eventName,c.event.cluster.name AS clusterName" +
-                    "  FROM Certificate c WHERE c.event.cluster.id = :clusterId AND c.event.cluster.organization.id = :organizationId")
+                    "c.comments AS comments,c.event.name AS eventName,c.cluster.name AS clusterName" +
+                    "  FROM Certificate c WHERE c.cluster.id = :clusterId AND c.organization.id = :organizationId")
     Page<CertificateInfoProjection> getLatestCertificateInfoByCluster(Pageable pageable, String clusterId, String organizationId);
 
 
@@ -50,9 +66,132 @@ public interface  CertificateRepository extends JpaRepository<Certificate,String
                     "c.certificateName AS certificateName,c.issuedDate AS issuedDate," +
                     "c.expiryDate AS expiryDate,c.revoked AS revoked,c.revokedDate as revokedDate," +
                     "c.issuedByUser.username AS issuerName,c.issuedByUser.email AS issuerEmail," +
-                    "c.comments AS comment,c.event.name AS eventName,c.event.cluster.name AS clusterName" +
-                    "  FROM Certificate c WHERE c.event.id = :eventId AND c.event.cluster.organization.id = :organizationId")
+                    "c.comments AS comments,c.event.name AS eventName,c.cluster.name AS clusterName" +
+                    "  FROM Certificate c WHERE c.event.id = :eventId AND c.organization.id = :organizationId")
     Page<CertificateInfoProjection> getLatestCertificateInfoByEvent(Pageable pageable, String eventId, String organizationId);
 
-    Long countByEvent_Cluster_Organization_Id(String userOrganizationId);
+    Long countByOrganization_Id(String userOrganizationId);
+
+
+    //keyset variants: rows strictly after (issuedDate, id) in (issuedDate desc, id desc) order.
+    //the redundant issuedDate <= :issuedDate gives mysql a range on the (scope, issued_date) index
+    //and no count query is issued since a slice only looks one row ahead
+    @Query(
+            "SELECT c.id AS id,c.recipientName AS recipientName,c.recipientEmail AS recipientEmail," +
+                    "c.certificateName AS certificateName,c.issuedDate AS issuedDate," +
+                    "c.expiryDate AS expiryDate,c.revoked AS revoked,c.revokedDate as revokedDate," +
+                    "c.issuedByUser.username AS issuerName,c.issuedByUser.email AS issuerEmail," +
+                    "c.comments AS comments,c.event.name AS eventName,c.cluster.name AS clusterName" +
+                    "  FROM Certificate c WHERE c.organization.id = :organizationId " +
+                    "AND c.issuedDate <= :issuedDate AND (c.issuedDate < :issuedDate OR c.id < :id) " +
+                    "ORDER BY c.issuedDate DESC, c.id DESC")
+    Slice<CertificateInfoProjection> getCertificateInfoAfter(@Param("organizationId") String organizationId,
+                                                             @Param("issuedDate") Date issuedDate,
+                                                             @Param("id") String id, Pageable pageable);
+
+
+    @Query(
+            "SELECT c.id AS id,c.recipientName AS recipientName,c.recipientEmail AS recipientEmail," +
+                    "c.certificateName AS certificateName,c.issuedDate AS issuedDate," +
+                    "c.expiryDate AS expiryDate,c.revoked AS revoked,c.revokedDate as revokedDate," +
+                    "c.issuedByUser.username AS issuerName,c.issuedByUser.email AS issuerEmail," +
+                    "c.comments AS comments,c.event.name AS eventName,c.cluster.name AS clusterName" +
+                    "  FROM Certificate c WHERE c.cluster.id = :clusterId AND c.organization.id = :organizationId " +
+                    "AND c.issuedDate <= :issuedDate AND (c.issuedDate < :issuedDate OR c.id < :id) " +
+                    "ORDER BY c.issuedDate DESC, c.id DESC")
+    Slice<CertificateInfoProjection> getCertificateInfoByClusterAfter(@Param("clusterId") String clusterId,
+                                                                      @Param("organizationId") String organizationId,
+                                                                      @Param("issuedDate") Date issuedDate,
+                                                                      @Param("id") String id, Pageable pageable);
+
+
+    @Query(
+            "SELECT c.id AS id,c.recipientName AS recipientName,c.recipientEmail AS recipientEmail," +
+                    "c.certificateName AS certificateName,c.issuedDate AS issuedDate," +
+                    "c.expiryDate AS expiryDate,c.revoked AS revoked,c.revokedDate as revokedDate," +
+                    "c.issuedByUser.username AS issuerName,c.issuedByUser.email AS issuerEmail," +
+                    "c.comments AS comments,c.event.name AS eventName,c.cluster.name AS clusterName" +
+                    "  FROM Certificate c WHERE c.event.id = :eventId AND c.organization.id = :organizationId " +
+                    "AND c.issuedDate <= :issuedDate AND (c.issuedDate < :issuedDate OR c.id < :id) " +
+                    "ORDER BY c.issuedDate DESC, c.id DESC")
+    Slice<CertificateInfoProjection> getCertificateInfoByEventAfter(@Param("eventId") String eventId,
+                                                                    @Param("organizationId") String organizationId,
+                                                                    @Param("issuedDate") Date issuedDate,
+                                                                    @Param("id") String id, Pageable pageable);
+
+
+    //phrase is a full-text boolean mode phrase matched against certificate and recipient names, best matches first
+    @Query(nativeQuery = true, value =
+            "SELECT c.id AS id,c.recipient_name AS recipientName,c.recipient_email AS recipientEmail," +
+                    "c.certificate_name AS certificateName,c.issued_date AS issuedDate," +
+                    "c.expiry_date AS expiryDate,c.revoked AS revoked,c.revoked_date AS revokedDate," +
+                    "u.username AS issuerName,u.email AS issuerEmail," +
+                    "c.comments AS comments,e.name AS eventName,cl.name AS clusterName " +
+                    "FROM certificates c INNER JOIN users u ON u.id = c.user_id INNER JOIN events e ON e.id = c.event_id " +
+                    "INNER JOIN clusters cl ON cl.id = c.cluster_id WHERE c.organization_id = :organizationId " +
+                    "AND MATCH(c.certificate_name, c.recipient_name) AGAINST (:phrase IN BOOLEAN MODE) " +
+                    "ORDER BY MATCH(c.certificate_name, c.recipient_name) AGAINST (:phrase IN BOOLEAN MODE) DESC, " +
+                    "c.issued_date DESC LIMIT :size")
+    List<CertificateInfoProjection> searchByName(@Param("phrase") String phrase, @Param("organizationId") String organizationId,
+                                                 @Param("size") int size);
+
+
+    @Query(
+            "SELECT c.id AS id,c.recipientName AS recipientName,c.recipientEmail AS recipientEmail," +
+                    "c.certificateName AS certificateName,c.issuedDate AS issuedDate," +
+                    "c.expiryDate AS expiryDate,c.revoked AS revoked,c.revokedDate as revokedDate," +
+                    "c.issuedByUser.username AS issuerName,c.issuedByUser.email AS issuerEmail," +
+                    "c.comments AS comments,c.event.name AS eventName,c.cluster.name AS clusterName" +
+                    "  FROM Certificate c WHERE c.organization.id = :organizationId AND c.certificateName LIKE :prefix " +
+                    "ORDER BY c.certificateName")
+    List<CertificateInfoProjection> searchByNamePrefix(@Param("prefix") String prefix, @Param("organizationId") String organizationId,
+                                                       Pageable pageable);
+
+
+    @Query("SELECT DISTINCT c.certificateName FROM Certificate c WHERE c.organization.id = :organizationId " +
+            "AND c.certificateName LIKE :prefix ORDER BY c.certificateName")
+    List<String> autocompleteCertificateName(@Param("prefix") String prefix, @Param("organizationId") String organizationId,
+                                             Pageable pageable);
+
+
+    //recipient search, email is matched exactly in its normalized form, newest certificates first
+    @Query(
+            "SELECT c.id AS id,c.recipientName AS recipientName,c.recipientEmail AS recipientEmail," +
+                    "c.certificateName AS certificateName,c.issuedDate AS issuedDate," +
+                    "c.expiryDate AS expiryDate,c.revoked AS revoked,c.revokedDate as revokedDate," +
+                    "c.issuedByUser.username AS issuerName,c.issuedByUser.email AS issuerEmail," +
+                    "c.comments AS comments,c.event.name AS eventName,c.cluster.name AS clusterName" +
+                    "  FROM Certificate c WHERE c.organization.id = :organizationId AND c.recipientEmail = :email " +
+                    "ORDER BY c.issuedDate DESC, c.id DESC")
+    Slice<CertificateInfoProjection> searchByRecipientEmail(@Param("email") String email,
+                                                            @Param("organizationId") String organizationId,
+                                                            Pageable pageable);
+
+
+    @Query(
+            "SELECT c.id AS id,c.recipientName AS recipientName,c.recipientEmail AS recipientEmail," +
+                    "c.certificateName AS certificateName,c.issuedDate AS issuedDate," +
+                    "c.expiryDate AS expiryDate,c.revoked AS revoked,c.revokedDate as revokedDate," +
+                    "c.issuedByUser.username AS issuerName,c.issuedByUser.email AS issuerEmail," +
+                    "c.comments AS comments,c.event.name AS eventName,c.cluster.name AS clusterName" +
+                    "  FROM Certificate c WHERE c.organization.id = :organizationId AND c.recipientName LIKE :prefix " +
+                    "ORDER BY c.recipientName, c.id")
+    Slice<CertificateInfoProjection> searchByRecipientNamePrefix(@Param("prefix") String prefix,
+                                                                 @Param("organizationId") String organizationId,
+                                                                 Pageable pageable);
+
+
+    @Query(nativeQuery = true, value =
+            "SELECT c.id AS id,c.recipient_name AS recipientName,c.recipient_email AS recipientEmail," +
+                    "c.certificate_name AS certificateName,c.issued_date AS issuedDate," +
+                    "c.expiry_date AS expiryDate,c.revoked AS revoked,c.revoked_date AS revokedDate," +
+                    "u.username AS issuerName,u.email AS issuerEmail," +
+                    "c.comments AS comments,e.name AS eventName,cl.name AS clusterName " +
+                    "FROM certificates c INNER JOIN users u ON u.id = c.user_id INNER JOIN events e ON e.id = c.event_id " +
+                    "INNER JOIN clusters cl ON cl.id = c.cluster_id WHERE c.organization_id = :organizationId " +
+                    "AND MATCH(c.recipient_name) AGAINST (:phrase IN BOOLEAN MODE) " +
+                    "ORDER BY MATCH(c.recipient_name) AGAINST (:phrase IN BOOLEAN MODE) DESC, c.issued_date DESC, c.id DESC")
+    Slice<CertificateInfoProjection> searchByRecipientName(@Param("phrase") String phrase,
+                                                           @Param("organizationId") String organizationId,
+                                                           Pageable pageable);
 }
@@ -1,18 +1,31 @@
 package com.credaegis.backend.repository;
 
+import com.credaegis.backend.constant.Constants;
 import com.credaegis.backend.dto.ClusterInfoDTO;
+import com.credaegis.backend.dto.ClusterSummaryDTO;
 import com.credaegis.backend.entity.Cluster;
 import com.credaegis.backend.entity.Organization;
+import com.credaegis.backend.dto.projection.ClusterDetailProjection;
 import com.credaegis.backend.dto.projection.ClusterSearchProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface  ClusterRepository extends JpaRepository<Cluster,String> {
 
+        //cached until the next write to clusters
+        @QueryHints({
+                @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Constants.NAME_LOOKUP_CACHE_REGION)
+        })
         Cluster findByNameAndOrganization(String name, Organization organization);
         List<Cluster> findByOrganization(Organization organization);
 
@@ -24,13 +37,32 @@ public interface  ClusterRepository extends JpaRepository<Cluster,String> {
 //                "FROM Cluster c WHERE c.id = :id")
 
 
-        @Query("SELECT c.id AS id,c.name AS name FROM Cluster c WHERE c.name LIKE %:name% AND c.organization.id = :id")
-        List<ClusterSearchProjection> searchByName(@Param("name") String name, @Param("id") String userOrganizationId);
+        //phrase is a full-text boolean mode phrase, best matches first
+        @Query(nativeQuery = true, value = "SELECT c.id AS id,c.name AS name FROM clusters c WHERE c.organization_id = :id " +
+                "AND MATCH(c.name) AGAINST (:phrase IN BOOLEAN MODE) " +
+                "ORDER BY MATCH(c.name) AGAINST (:phrase IN BOOLEAN MODE) DESC, c.name LIMIT :size")
+        List<ClusterSearchProjection> searchByName(@Param("phrase") String phrase, @Param("id") String userOrganizationId,
+                                                   @Param("size") int size);
+
+        @Query("SELECT c.id AS id,c.name AS name FROM Cluster c WHERE c.organization.id = :id AND c.name LIKE :prefix ORDER BY c.name")
+        List<ClusterSearchProjection> searchByNamePrefix(@Param("prefix") String prefix, @Param("id") String userOrganizationId,
+                                                         Pageable pageable);
 
         //maps via alias (runtime)
         @Query("SELECT  c.id AS id ,c.name AS name from Cluster c WHERE c.organization.id =:id")
         List<ClusterSearchProjection> getAllNameAndId(@Param("id") String id);
 
+        //one row per cluster for the cluster page, counts come from correlated subqueries and the
+        //statistic counters so nothing is loaded lazily while the result is serialized
+        @Query("SELECT new com.credaegis.backend.dto.ClusterSummaryDTO" +
+                "(c.id,c.name,c.locked,c.deactivated,c.createdOn,u.id,u.username,u.email," +
+                "(SELECT COUNT(e) FROM Event e WHERE e.cluster = c)," +
+                "(SELECT COUNT(m) FROM User m WHERE m.cluster = c AND m.deleted = false)," +
+                "COALESCE(s.issuedCount, 0L),COALESCE(s.revokedCount, 0L)) " +
+                "FROM Cluster c LEFT JOIN c.adminCluster ac LEFT JOIN ac.user u LEFT JOIN StatisticCounter s ON s.id = c.id " +
+                "WHERE c.organization.id = :organizationId ORDER BY c.createdOn")
+        List<ClusterSummaryDTO> getClusterSummaries(@Param("organizationId") String organizationId);
+
         @Modifying
         @Query("UPDATE Cluster c SET c.deactivated = true WHERE c.id = :id ")
         void deactivateCluster(@Param("id") String clusterId);
@@ -59,5 +91,17 @@ public interface  ClusterRepository extends JpaRepository<Cluster,String> {
 
 
 
+        //the cluster and its admin in one statement, the organization is returned for the permission check
+        @Query("SELECT c.id AS id,c.name AS name,c.locked AS locked,c.deactivated AS deactivated,c.createdOn AS createdOn," +
+                "c.organization.id AS organizationId,u.id AS adminId,u.username AS adminName,u.email AS adminEmail " +
+                "FROM Cluster c LEFT JOIN c.adminCluster ac LEFT JOIN ac.user u WHERE c.id = :id")
+        Optional<ClusterDetailProjection> getClusterDetail(@Param("id") String clusterId);
+
+
         Cluster findByIdAndOrganization(String id, Organization organization);
+
+        Long countByOrganization_Id(String organizationId);
+
+        @Query("SELECT c.organization.id FROM Cluster c WHERE c.id = :id")
+        Optional<String> findOrganizationIdById(@Param("id") String clusterId);
 }
@@ -1,29 +1,46 @@
 package com.credaegis.backend.repository;
 
+import com.credaegis.backend.constant.Constants;
 import com.credaegis.backend.dto.EventInfoDTO;
 import com.credaegis.backend.entity.Cluster;
 import com.credaegis.backend.entity.Event;
 import com.credaegis.backend.dto.projection.EventSearchProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, String> {
 
+    //the ownership check and the approval upload read the cluster, its organization id is on the cluster row
+    @EntityGraph(attributePaths = "cluster")
+    Optional<Event> findWithClusterById(String id);
 
-    @Query("SELECT e.id AS id ,e.name AS name,e.cluster.id AS clusterId,e.cluster.name AS clusterName FROM Event e WHERE e.name " +
-            "LIKE %:eventName% AND (:clusterId IS NULL OR e.cluster.id = :clusterId)")
-    List<EventSearchProjection> searchByNameAndClusterId(String eventName, String clusterId, String userOrganizationId);
+    //phrase is a full-text boolean mode phrase, best matches first. clusterId null searches the whole organization
+    @Query(nativeQuery = true, value = "SELECT e.id AS id,e.name AS name,c.id AS clusterId,c.name AS clusterName " +
+            "FROM events e INNER JOIN clusters c ON c.id = e.cluster_id WHERE c.organization_id = :organizationId " +
+            "AND (:clusterId IS NULL OR c.id = :clusterId) AND MATCH(e.name) AGAINST (:phrase IN BOOLEAN MODE) " +
+            "ORDER BY MATCH(e.name) AGAINST (:phrase IN BOOLEAN MODE) DESC, e.name LIMIT :size")
+    List<EventSearchProjection> searchByName(@Param("phrase") String phrase, @Param("clusterId") String clusterId,
+                                             @Param("organizationId") String userOrganizationId, @Param("size") int size);
 
 
-    @Query("SELECT e.id AS id ,e.name AS name,e.cluster.id AS clusterId,e.cluster.name AS clusterName FROM Event e WHERE e.name " +
-            "LIKE %:eventName%  AND e.cluster.organization.id = :organizationId")
-    List<EventSearchProjection> searchByName(@Param("eventName") String eventName, @Param("organizationId") String userOrganizationId);
+    @Query("SELECT e.id AS id ,e.name AS name,e.cluster.id AS clusterId,e.cluster.name AS clusterName FROM Event e " +
+            "WHERE e.cluster.organization.id = :organizationId AND (:clusterId IS NULL OR e.cluster.id = :clusterId) " +
+            "AND e.name LIKE :prefix ORDER BY e.name")
+    List<EventSearchProjection> searchByNamePrefix(@Param("prefix") String prefix, @Param("clusterId") String clusterId,
+                                                   @Param("organizationId") String userOrganizationId, Pageable pageable);
 
     @Modifying
     @Query("UPDATE Event e SET e.deactivated = false WHERE e.id = :id")
@@ -47,5 +64,20 @@ public interface EventRepository extends JpaRepository<Event, String> {
     List<EventInfoDTO> getEventInfo(@Param("cluster") Cluster cluster);
 
 
+    @Query("SELECT new com.credaegis.backend.dto.EventInfoDTO(e.id, e.name, e.description, e.deactivated, e.createdOn)" +
+            " FROM Event e WHERE e.cluster.id = :clusterId ORDER BY e.createdOn, e.id")
+    Slice<EventInfoDTO> getEventInfoPage(@Param("clusterId") String clusterId, Pageable pageable);
+
+
+    //cached until the next write to events
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Constants.NAME_LOOKUP_CACHE_REGION)
+    })
     boolean existsByNameAndCluster(String eventName, Cluster cluster);
+
+    Long countByCluster_Organization_Id(String organizationId);
+
+    @Query("SELECT e.cluster.organization.id FROM Event e WHERE e.id = :id")
+    Optional<String> findOrganizationIdById(@Param("id") String eventId);
 }
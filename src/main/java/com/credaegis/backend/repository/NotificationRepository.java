@@ -1,8 +1,14 @@
 package com.credaegis.backend.repository;
 
+import com.credaegis.backend.dto.NotificationDTO;
 import com.credaegis.backend.entity.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.sql.Timestamp;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, String> {
@@ -10,6 +16,16 @@ public interface NotificationRepository extends JpaRepository<Notification, Stri
 
     List<Notification> findByUser_Id(String userId);
 
+    //keyset: notifications strictly after (timestamp, id) in (timestamp desc, id desc) order,
+    //read straight off the (user_id, timestamp, id) index
+    @Query("SELECT new com.credaegis.backend.dto.NotificationDTO(n.id, n.message, n.type, n.timestamp)" +
+            " FROM Notification n WHERE n.user.id = :userId " +
+            "AND n.timestamp <= :timestamp AND (n.timestamp < :timestamp OR n.id < :id) " +
+            "ORDER BY n.timestamp DESC, n.id DESC")
+    Slice<NotificationDTO> getNotificationsAfter(@Param("userId") String userId,
+                                                 @Param("timestamp") Timestamp timestamp,
+                                                 @Param("id") String id, Pageable pageable);
+
     void deleteByIdAndUser_Id(String id, String userId);
 
     void deleteByUser_Id(String userId);
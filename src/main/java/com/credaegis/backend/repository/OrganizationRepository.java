@@ -2,6 +2,12 @@ package com.credaegis.backend.repository;
 
 import com.credaegis.backend.entity.Organization;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface OrganizationRepository extends JpaRepository<Organization,String> {
+
+    @Query("SELECT o.id FROM Organization o")
+    List<String> findAllIds();
 }
@@ -0,0 +1,97 @@
+package com.credaegis.backend.repository;
+
+import com.credaegis.backend.dto.ClusterStatisticsDTO;
+import com.credaegis.backend.dto.EventStatisticDTO;
+import com.credaegis.backend.entity.StatisticCounter;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface StatisticCounterRepository extends JpaRepository<StatisticCounter, String> {
+
+
+    //adds the deltas to the organization, cluster and event rows in one statement, creating missing rows
+    //(the native writes here name their table, otherwise hibernate clears the whole second-level cache after each one)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_counters"))
+    @Query(nativeQuery = true, value = "INSERT INTO statistic_counters (id, scope, organization_id, cluster_id, " +
+            "issued_count, revoked_count, expired_count, rejected_count, pending_count) VALUES " +
+            "(:organizationId, 'organization', :organizationId, NULL, :issued, :revoked, :expired, :rejected, :pending)," +
+            "(:clusterId, 'cluster', :organizationId, :clusterId, :issued, :revoked, :expired, :rejected, :pending)," +
+            "(:eventId, 'event', :organizationId, :clusterId, :issued, :revoked, :expired, :rejected, :pending) " +
+            "ON DUPLICATE KEY UPDATE issued_count = issued_count + VALUES(issued_count)," +
+            "revoked_count = revoked_count + VALUES(revoked_count),expired_count = expired_count + VALUES(expired_count)," +
+            "rejected_count = rejected_count + VALUES(rejected_count),pending_count = pending_count + VALUES(pending_count)")
+    void increment(@Param("organizationId") String organizationId, @Param("clusterId") String clusterId,
+                   @Param("eventId") String eventId, @Param("issued") long issued, @Param("revoked") long revoked,
+                   @Param("expired") long expired, @Param("rejected") long rejected, @Param("pending") long pending);
+
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_counters"))
+    @Query(nativeQuery = true, value = "DELETE FROM statistic_counters WHERE organization_id = :organizationId")
+    void deleteByOrganizationId(@Param("organizationId") String organizationId);
+
+
+    //rebuild from the source tables, event rows first since cluster and organization rows are summed from them
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_counters"))
+    @Query(nativeQuery = true, value = "INSERT INTO statistic_counters (id, scope, organization_id, cluster_id, " +
+            "issued_count, revoked_count, expired_count, rejected_count, pending_count) " +
+            "SELECT e.id, 'event', c.organization_id, c.id, COALESCE(ce.issued, 0), COALESCE(ce.revoked, 0), " +
+            "COALESCE(ce.expired, 0), COALESCE(a.rejected, 0), COALESCE(a.pending, 0) " +
+            "FROM events e INNER JOIN clusters c ON c.id = e.cluster_id " +
+            "LEFT JOIN (SELECT event_id, COUNT(*) AS issued, SUM(CASE WHEN revoked THEN 1 ELSE 0 END) AS revoked, " +
+            "SUM(CASE WHEN expiry_date < CURRENT_DATE THEN 1 ELSE 0 END) AS expired " +
+            "FROM certificates WHERE organization_id = :organizationId GROUP BY event_id) ce ON ce.event_id = e.id " +
+            "LEFT JOIN (SELECT event_id, SUM(CASE WHEN approval_status = 'rejected' THEN 1 ELSE 0 END) AS rejected, " +
+            "SUM(CASE WHEN approval_status = 'pending' THEN 1 ELSE 0 END) AS pending " +
+            "FROM approvals WHERE organization_id = :organizationId GROUP BY event_id) a ON a.event_id = e.id " +
+            "WHERE c.organization_id = :organizationId")
+    void rebuildEventCounters(@Param("organizationId") String organizationId);
+
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_counters"))
+    @Query(nativeQuery = true, value = "INSERT INTO statistic_counters (id, scope, organization_id, cluster_id, " +
+            "issued_count, revoked_count, expired_count, rejected_count, pending_count) " +
+            "SELECT cluster_id, 'cluster', organization_id, cluster_id, SUM(issued_count), SUM(revoked_count), " +
+            "SUM(expired_count), SUM(rejected_count), SUM(pending_count) FROM statistic_counters " +
+            "WHERE organization_id = :organizationId AND scope = 'event' GROUP BY organization_id, cluster_id")
+    void rebuildClusterCounters(@Param("organizationId") String organizationId);
+
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_counters"))
+    @Query(nativeQuery = true, value = "INSERT INTO statistic_counters (id, scope, organization_id, cluster_id, " +
+            "issued_count, revoked_count, expired_count, rejected_count, pending_count) " +
+            "SELECT :organizationId, 'organization', :organizationId, NULL, COALESCE(SUM(issued_count), 0), " +
+            "COALESCE(SUM(revoked_count), 0), COALESCE(SUM(expired_count), 0), COALESCE(SUM(rejected_count), 0), " +
+            "COALESCE(SUM(pending_count), 0) FROM statistic_counters " +
+            "WHERE organization_id = :organizationId AND scope = 'event'")
+    void rebuildOrganizationCounter(@Param("organizationId") String organizationId);
+
+
+    //clusters and events without a counter row yet read as zero
+    @Query("SELECT new com.credaegis.backend.dto.ClusterStatisticsDTO(c.id, c.name, " +
+            "COALESCE(s.issuedCount, 0L), COALESCE(s.revokedCount, 0L), COALESCE(s.rejectedCount, 0L), " +
+            "COALESCE(s.expiredCount, 0L), COALESCE(s.pendingCount, 0L)) " +
+            "FROM Cluster c LEFT JOIN StatisticCounter s ON s.id = c.id " +
+            "WHERE c.organization.id = :organizationId ORDER BY c.name")
+    List<ClusterStatisticsDTO> getClusterStatistics(@Param("organizationId") String organizationId);
+
+
+    @Query("SELECT new com.credaegis.backend.dto.EventStatisticDTO(e.id, e.name, e.cluster.name, " +
+            "COALESCE(s.issuedCount, 0L), COALESCE(s.revokedCount, 0L), COALESCE(s.rejectedCount, 0L), " +
+            "COALESCE(s.expiredCount, 0L), COALESCE(s.pendingCount, 0L)) " +
+            "FROM Event e LEFT JOIN StatisticCounter s ON s.id = e.id " +
+            "WHERE e.cluster.id = :clusterId AND e.cluster.organization.id = :organizationId ORDER BY e.name")
+    List<EventStatisticDTO> getEventStatistics(@Param("clusterId") String clusterId,
+                                               @Param("organizationId") String organizationId);
+}
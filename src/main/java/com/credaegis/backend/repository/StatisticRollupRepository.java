@@ -0,0 +1,98 @@
+package com.credaegis.backend.repository;
+
+import com.credaegis.backend.dto.projection.StatisticTrendProjection;
+import com.credaegis.backend.entity.StatisticRollup;
+import com.credaegis.backend.entity.StatisticRollupId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Date;
+import java.util.List;
+
+public interface StatisticRollupRepository extends JpaRepository<StatisticRollup, StatisticRollupId> {
+
+
+    //adds to the day's organization, cluster and event rows in one statement, creating missing rows
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_rollups"))
+    @Query(nativeQuery = true, value = "INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, " +
+            "cluster_id, issued_count, revoked_count) VALUES " +
+            "(:organizationId, :bucketDate, 'organization', :organizationId, NULL, :issued, :revoked)," +
+            "(:clusterId, :bucketDate, 'cluster', :organizationId, :clusterId, :issued, :revoked)," +
+            "(:eventId, :bucketDate, 'event', :organizationId, :clusterId, :issued, :revoked) " +
+            "ON DUPLICATE KEY UPDATE issued_count = issued_count + VALUES(issued_count)," +
+            "revoked_count = revoked_count + VALUES(revoked_count)")
+    void increment(@Param("organizationId") String organizationId, @Param("clusterId") String clusterId,
+                   @Param("eventId") String eventId, @Param("bucketDate") Date bucketDate,
+                   @Param("issued") long issued, @Param("revoked") long revoked);
+
+
+    @Query(nativeQuery = true, value = "SELECT bucket_date AS bucketDate, issued_count AS issuedCount, " +
+            "revoked_count AS revokedCount FROM statistic_rollups WHERE scope_id = :scopeId " +
+            "AND organization_id = :organizationId AND bucket_date BETWEEN :fromDate AND :toDate ORDER BY bucket_date")
+    List<StatisticTrendProjection> getDailyTrend(@Param("scopeId") String scopeId,
+                                                 @Param("organizationId") String organizationId,
+                                                 @Param("fromDate") Date fromDate, @Param("toDate") Date toDate);
+
+
+    //weeks start on monday, the range is expected to run from a monday to a sunday so no week is cut short
+    @Query(nativeQuery = true, value = "SELECT DATE_SUB(bucket_date, INTERVAL WEEKDAY(bucket_date) DAY) AS bucketDate, " +
+            "CAST(SUM(issued_count) AS SIGNED) AS issuedCount, CAST(SUM(revoked_count) AS SIGNED) AS revokedCount " +
+            "FROM statistic_rollups WHERE scope_id = :scopeId AND organization_id = :organizationId " +
+            "AND bucket_date BETWEEN :fromDate AND :toDate GROUP BY bucketDate ORDER BY bucketDate")
+    List<StatisticTrendProjection> getWeeklyTrend(@Param("scopeId") String scopeId,
+                                                  @Param("organizationId") String organizationId,
+                                                  @Param("fromDate") Date fromDate, @Param("toDate") Date toDate);
+
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_rollups"))
+    @Query(nativeQuery = true, value = "DELETE FROM statistic_rollups WHERE organization_id = :organizationId")
+    void deleteByOrganizationId(@Param("organizationId") String organizationId);
+
+
+    //rebuild from certificates, event rows first since cluster and organization rows are summed from them
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_rollups"))
+    @Query(nativeQuery = true, value = "INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, " +
+            "cluster_id, issued_count, revoked_count) " +
+            "SELECT event_id, issued_date, 'event', organization_id, cluster_id, COUNT(*), 0 FROM certificates " +
+            "WHERE organization_id = :organizationId GROUP BY event_id, issued_date, organization_id, cluster_id")
+    void rebuildIssuedEventRollups(@Param("organizationId") String organizationId);
+
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_rollups"))
+    @Query(nativeQuery = true, value = "INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, " +
+            "cluster_id, issued_count, revoked_count) " +
+            "SELECT event_id, revoked_date, 'event', organization_id, cluster_id, 0, COUNT(*) FROM certificates " +
+            "WHERE organization_id = :organizationId AND revoked = TRUE AND revoked_date IS NOT NULL " +
+            "GROUP BY event_id, revoked_date, organization_id, cluster_id " +
+            "ON DUPLICATE KEY UPDATE revoked_count = VALUES(revoked_count)")
+    void rebuildRevokedEventRollups(@Param("organizationId") String organizationId);
+
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_rollups"))
+    @Query(nativeQuery = true, value = "INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, " +
+            "cluster_id, issued_count, revoked_count) " +
+            "SELECT cluster_id, bucket_date, 'cluster', organization_id, cluster_id, SUM(issued_count), SUM(revoked_count) " +
+            "FROM statistic_rollups WHERE organization_id = :organizationId AND scope = 'event' " +
+            "GROUP BY cluster_id, bucket_date, organization_id")
+    void rebuildClusterRollups(@Param("organizationId") String organizationId);
+
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistic_rollups"))
+    @Query(nativeQuery = true, value = "INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, " +
+            "cluster_id, issued_count, revoked_count) " +
+            "SELECT organization_id, bucket_date, 'organization', organization_id, NULL, SUM(issued_count), SUM(revoked_count) " +
+            "FROM statistic_rollups WHERE organization_id = :organizationId AND scope = 'event' " +
+            "GROUP BY organization_id, bucket_date")
+    void rebuildOrganizationRollups(@Param("organizationId") String organizationId);
+}
@@ -1,13 +1,18 @@
 package com.credaegis.backend.repository;
 
 import com.credaegis.backend.dto.MemberInfoDTO;
+import com.credaegis.backend.dto.projection.BrandLogoProjection;
 import com.credaegis.backend.entity.Cluster;
 import com.credaegis.backend.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,14 +20,36 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User,String> {
 
+    //authentication reads, read-write so they go to the primary rather than a lagging replica
+    //when called outside a service transaction
+    @Transactional
     Optional<User> findByEmail(String email);
     Optional<User> findByIdAndDeleted(String id,Boolean deleted);
 
+    @EntityGraph(attributePaths = "organization")
+    Optional<User> findWithOrganizationById(String id);
+
+    @EntityGraph(attributePaths = "cluster")
+    Optional<User> findWithClusterById(String id);
+
 
     @Query("SELECT new com.credaegis.backend.dto.MemberInfoDTO(u.id, u.username, u.email, u.deactivated, u.createdOn)" +
             " FROM User u WHERE u.cluster = :cluster AND u.deleted = false")
     List<MemberInfoDTO> getMemberInfo(@Param("cluster") Cluster cluster);
 
+
+    @Query("SELECT new com.credaegis.backend.dto.MemberInfoDTO(u.id, u.username, u.email, u.deactivated, u.createdOn)" +
+            " FROM User u WHERE u.cluster.id = :clusterId AND u.deleted = false ORDER BY u.createdOn, u.id")
+    Slice<MemberInfoDTO> getMemberInfoPage(@Param("clusterId") String clusterId, Pageable pageable);
+
+    @Query("SELECT u.brandLogoEnabled AS brandLogoEnabled, u.brandLogoVersion AS brandLogoVersion" +
+            " FROM User u WHERE u.id = :id")
+    Optional<BrandLogoProjection> findBrandLogoById(@Param("id") String id);
+
+    @Transactional
+    @Query("SELECT u.password FROM User u WHERE u.id = :id")
+    Optional<String> findPasswordById(@Param("id") String id);
+
     @Query("SELECT u.id FROM User u WHERE u.cluster.id = :id AND u.deleted = false ")
     List<String> findAllUserIdByClusterId(@Param("id") String clusterId);
 
@@ -55,4 +82,6 @@ public interface UserRepository extends JpaRepository<User,String> {
     @Modifying
     @Query("UPDATE User u SET u.username = :name WHERE u.id = :id")
     void renameUser(@Param("name") String name, @Param("id") String userId);
+
+    Long countByOrganization_IdAndDeletedFalse(String organizationId);
 }
@@ -1,7 +1,11 @@
 package com.credaegis.backend.service;
 
+import com.credaegis.backend.configuration.security.service.PrincipalCache;
+import com.credaegis.backend.constant.BrandLogoRendition;
 import com.credaegis.backend.constant.Constants;
+import com.credaegis.backend.dto.BrandLogoDTO;
 import com.credaegis.backend.dto.OrganizationInfoDTO;
+import com.credaegis.backend.dto.projection.BrandLogoProjection;
 import com.credaegis.backend.entity.Notification;
 import com.credaegis.backend.entity.User;
 import com.credaegis.backend.exception.custom.CustomException;
@@ -11,6 +15,7 @@ import com.credaegis.backend.http.request.PasswordChangeRequest;
 import com.credaegis.backend.http.response.custom.AccountInfoResponse;
 import com.credaegis.backend.repository.NotificationRepository;
 import com.credaegis.backend.repository.UserRepository;
+import com.credaegis.backend.utility.ImageUtility;
 import com.credaegis.backend.utility.PasswordUtility;
 import dev.samstevens.totp.code.CodeVerifier;
 import dev.samstevens.totp.code.HashingAlgorithm;
@@ -18,24 +23,26 @@ import dev.samstevens.totp.qr.QrData;
 import dev.samstevens.totp.qr.QrGenerator;
 import dev.samstevens.totp.secret.SecretGenerator;
 import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.util.List;
 
 import static dev.samstevens.totp.util.Utils.getDataUriForImage;
@@ -55,8 +62,12 @@ public class AccountService {
     private final CodeVerifier codeVerifier;
     private final NotificationRepository notificationRepository;
     private final MinioClient minioClient;
+    private final PrincipalCache principalCache;
+    private final BrandLogoCache brandLogoCache;
+    private final ImageUtility imageUtility;
 
 
+    @Transactional(readOnly = true)
     public List<Notification> getNotifications(String userId){
           return notificationRepository.findByUser_Id(userId);
 
@@ -79,9 +90,16 @@ public class AccountService {
                     .bucket("brand-logo")
                     .object(user.getId())
                     .build());
+            for (BrandLogoRendition rendition : BrandLogoRendition.values())
+                minioClient.removeObject(RemoveObjectArgs.builder()
+                        .bucket("brand-logo")
+                        .object(renditionObject(user.getId(), rendition))
+                        .build());
 
             user.setBrandLogoEnabled(false);
+            user.setBrandLogoVersion(user.getBrandLogoVersion() + 1);
             userRepository.save(user);
+            brandLogoCache.evictByUserId(userId);
         } catch (Exception e) {
             log.error(e.toString());
             log.error(e.getMessage());
@@ -90,38 +108,54 @@ public class AccountService {
     }
 
 
-    public InputStream serveBrandLogo(String userId) {
+    //one single row lookup for the version, the logo itself comes from memory after the first request.
+    //without a rendition the uploaded original is served
+    @Transactional(readOnly = true)
+    public BrandLogoDTO serveBrandLogo(String userId, BrandLogoRendition rendition) {
+        BrandLogoProjection brandLogo = userRepository.findBrandLogoById(userId)
+                .orElseThrow(ExceptionFactory::resourceNotFound);
+        if (!brandLogo.getBrandLogoEnabled())
+            return brandLogoCache.placeholder();
+        int version = brandLogo.getBrandLogoVersion();
+        return brandLogoCache.get(userId, rendition, version, () -> loadBrandLogo(userId, rendition, version));
+    }
+
+    //the original is kept as uploaded under the user id, each rendition is scaled down from it once here
+    //and stored as {userId}-{rendition}
+    public void uploadBrandLogo(String userId, MultipartFile file) {
         User user = userRepository.findById(userId).orElseThrow(ExceptionFactory::resourceNotFound);
+        byte[] original;
         try {
-            return minioClient.getObject(GetObjectArgs.builder()
-                    .bucket("brand-logo")
-                    .object(user.getId())
-                    .build());
-        } catch (io.minio.errors.ErrorResponseException e) {
-            if (!e.errorResponse().code().equals("NoSuchKey")) {
-                throw new CustomException("Error in serving profile picture", HttpStatus.INTERNAL_SERVER_ERROR);
-            }
-            return getPlaceHolderImage();
+            original = file.getBytes();
         } catch (Exception e) {
             log.error(e.getMessage());
-            throw new CustomException("Error in serving profile picture", HttpStatus.INTERNAL_SERVER_ERROR);
+            throw new CustomException("Error in uploading profile picture", HttpStatus.INTERNAL_SERVER_ERROR);
         }
-    }
-
-    public void uploadBrandLogo(String userId, MultipartFile file) {
-        User user = userRepository.findById(userId).orElseThrow(ExceptionFactory::resourceNotFound);
+        BufferedImage image = imageUtility.read(original);
+        String renditionType = imageUtility.hasAlpha(image) ? MediaType.IMAGE_PNG_VALUE : MediaType.IMAGE_JPEG_VALUE;
         try {
 
             minioClient.putObject(PutObjectArgs.builder()
                     .bucket("brand-logo")
                     .object(user.getId())
                     .stream(
-                            file.getInputStream(), file.getSize(), -1)
+                            new ByteArrayInputStream(original), original.length, -1)
                     .contentType(file.getContentType())
                     .build());
+            for (BrandLogoRendition rendition : BrandLogoRendition.values()) {
+                byte[] resized = imageUtility.resize(image, rendition.getMaxSize());
+                minioClient.putObject(PutObjectArgs.builder()
+                        .bucket("brand-logo")
+                        .object(renditionObject(user.getId(), rendition))
+                        .stream(new ByteArrayInputStream(resized), resized.length, -1)
+                        .contentType(renditionType)
+                        .build());
+            }
 
             user.setBrandLogoEnabled(true);
+            user.setBrandLogoVersion(user.getBrandLogoVersion() + 1);
             userRepository.save(user);
+            brandLogoCache.evictByUserId(userId);
         } catch (Exception e) {
             log.error(e.getMessage());
             throw new CustomException("Error in uploading profile picture", HttpStatus.INTERNAL_SERVER_ERROR);
@@ -129,15 +163,16 @@ public class AccountService {
     }
 
     public void updateAccountInfo(AccountInfoModificationRequest accountInfoModificationRequest, String userId) {
-        User user = userRepository.findById(userId).orElseThrow(ExceptionFactory::resourceNotFound);
+        User user = userRepository.findWithOrganizationById(userId).orElseThrow(ExceptionFactory::resourceNotFound);
         user.setUsername(accountInfoModificationRequest.getUsername());
         user.getOrganization().setName(accountInfoModificationRequest.getOrganizationName());
         userRepository.save(user);
     }
 
+    @Transactional(readOnly = true)
     public AccountInfoResponse getMe(String userId) {
 
-        User user = userRepository.findById(userId).orElseThrow(ExceptionFactory::resourceNotFound);
+        User user = userRepository.findWithOrganizationById(userId).orElseThrow(ExceptionFactory::resourceNotFound);
         OrganizationInfoDTO organizationInfoDTO = OrganizationInfoDTO.builder()
                 .id(user.getOrganization().getId())
                 .name(user.getOrganization().getName())
@@ -152,14 +187,16 @@ public class AccountService {
 
     }
 
+    //the hash is read from the database, the session principal does not carry it
     public void changePassword(PasswordChangeRequest passwordChangeRequest,
-                               String oldPassword,
                                String userId,
                                HttpServletRequest request, HttpServletResponse response) {
 
+        String oldPassword = userRepository.findPasswordById(userId).orElseThrow(ExceptionFactory::resourceNotFound);
         passwordUtility.isPasswordValid(oldPassword, passwordChangeRequest.getOldPassword(),
                 passwordChangeRequest.getNewPassword(), passwordChangeRequest.getConfirmPassword());
         userRepository.updatePassword(userId, passwordEncoder.encode(passwordChangeRequest.getNewPassword()));
+        principalCache.evictByUserId(userId);
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication != null) {
@@ -198,6 +235,7 @@ public class AccountService {
         }
         if (codeVerifier.isValidCode(user.getMfaSecret(), code)) {
             userRepository.enableMfa(true, userId);
+            principalCache.evictByUserId(userId);
             return true;
         } else {
             throw ExceptionFactory.customValidationError("Mfa registration failed, incorrect otp");
@@ -211,18 +249,41 @@ public class AccountService {
             throw ExceptionFactory.customValidationError("mfa is already disabled");
         }
         userRepository.enableMfa(false, userId);
+        principalCache.evictByUserId(userId);
     }
 
 
-    private InputStream getPlaceHolderImage(){
-        try {
-
-            return new ClassPathResource("static/placeholder-brandlogo.png").getInputStream();
+    //logos uploaded before renditions existed only have the original, it stands in for every rendition
+    private BrandLogoDTO loadBrandLogo(String userId, BrandLogoRendition rendition, int version) {
+        String object = rendition == null ? userId : renditionObject(userId, rendition);
+        try (GetObjectResponse response = minioClient.getObject(GetObjectArgs.builder()
+                .bucket("brand-logo")
+                .object(object)
+                .build())) {
+            return new BrandLogoDTO(BrandLogoCache.eTag(userId, rendition, version),
+                    contentType(response.headers().get("Content-Type")), response.readAllBytes());
+        } catch (io.minio.errors.ErrorResponseException e) {
+            if (!e.errorResponse().code().equals("NoSuchKey")) {
+                throw new CustomException("Error in serving profile picture", HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            return rendition == null ? brandLogoCache.placeholder() : loadBrandLogo(userId, null, version);
         } catch (Exception e) {
             log.error(e.getMessage());
             throw new CustomException("Error in serving profile picture", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    private String renditionObject(String userId, BrandLogoRendition rendition) {
+        return userId + "-" + rendition;
+    }
+
+    //the stored type comes from the upload, anything but a raster image keeps being served as jpeg
+    //(an svg served with its own type could run scripts)
+    private MediaType contentType(String contentType) {
+        if (MediaType.IMAGE_PNG_VALUE.equals(contentType) || MediaType.IMAGE_GIF_VALUE.equals(contentType))
+            return MediaType.parseMediaType(contentType);
+        return MediaType.IMAGE_JPEG;
+    }
+
 
 }
@@ -9,22 +9,36 @@ import com.credaegis.backend.dto.ViewApprovalDTO;
 import com.credaegis.backend.entity.*;
 import com.credaegis.backend.exception.custom.ExceptionFactory;
 import com.credaegis.backend.http.request.ApprovalModificationRequest;
+import com.credaegis.backend.http.response.custom.CursorPageResponse;
+import com.credaegis.backend.http.response.custom.PageResponse;
 import com.credaegis.backend.dto.projection.ApprovalInfoProjection;
 import com.credaegis.backend.repository.*;
 import com.credaegis.backend.utility.CheckSumUtility;
+import com.credaegis.backend.utility.CursorUtility;
+import com.credaegis.backend.utility.SearchUtility;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.f4b6a3.ulid.UlidCreator;
 import io.minio.GetObjectArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -34,12 +48,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class ApprovalService {
 
+    private static final int STREAM_CHUNK_SIZE = 1000;
+
     private final ApprovalRepository approvalRepository;
     private final CertificateRepository certificateRepository;
     private final EventRepository eventRepository;
@@ -47,10 +64,19 @@ public class ApprovalService {
     private final ClusterRepository clusterRepository;
     private final CheckSumUtility checkSumUtility;
     private final UserRepository userRepository;
-    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
     private final RabbitTemplate rabbitTemplate;
+    private final CursorUtility cursorUtility;
+    private final ObjectMapper objectMapper;
+    private final StatisticService statisticService;
+    private final SearchUtility searchUtility;
+    private final OwnershipResolver ownershipResolver;
+    private final TransactionTemplate transactionTemplate;
 
 
+    //not transactional as a whole: each approval is read and marked buffered in its own short transaction on
+    //the primary, and only sent to the chain once that commits, so the listener never sees it still pending
+    //and one failed approval does not roll back the ones already sent. the file is read between the two
     public void approveCertifcatesBlockchain(String userId, String userOrganizationId, List<String> approvalIdList) throws IOException {
 
 
@@ -60,15 +86,14 @@ public class ApprovalService {
 
                 ApprovalBlockchainDTO approvalBlockchainDTO = new ApprovalBlockchainDTO();
                 try {
-                    Approval approval = approvalRepository.findById(approvalId).orElseThrow(ExceptionFactory::resourceNotFound);
-                    if (!approval.getEvent().getCluster().getOrganization().getId().equals(userOrganizationId)) {
-                          throw ExceptionFactory.insufficientPermission();
-
-                    }
-
         //    creating path to retrieve file
-                    String approvalPath = approval.getEvent().getCluster().getId() + "/"
-                            + approval.getEvent().getId() + "/" + approval.getId();
+                    String approvalPath = transactionTemplate.execute(status -> {
+                        Approval approval = approvalRepository.findById(approvalId).orElseThrow(ExceptionFactory::resourceNotFound);
+                        if (!approval.getOrganization().getId().equals(userOrganizationId))
+                            throw ExceptionFactory.insufficientPermission();
+                        return approval.getCluster().getId() + "/"
+                                + approval.getEvent().getId() + "/" + approval.getId();
+                    });
 
 
                     InputStream stream = minioClient.getObject(GetObjectArgs.builder()
@@ -80,35 +105,50 @@ public class ApprovalService {
                     byte [] bytes = stream.readAllBytes();
                     stream.close();
                     String hashedValue = checkSumUtility.hashCertificate(bytes);
-                    System.out.println(hashedValue);
                     approvalBlockchainDTO.setUserId(userId);
                     approvalBlockchainDTO.setApprovalId(approvalId);
                     approvalBlockchainDTO.setHash(hashedValue);
 
-                    approval.setStatus(Status.buffered);
-                    approvalRepository.save(approval);
-                    rabbitTemplate.convertAndSend(Constants.DIRECT_EXCHANGE,Constants.APPROVAL_REQUEST_QUEUE_KEY
-                    ,approvalBlockchainDTO);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Approval approval = approvalRepository.findById(approvalId).orElseThrow(ExceptionFactory::resourceNotFound);
+                        Status previousStatus = approval.getStatus();
+                        approval.setStatus(Status.buffered);
+                        approvalRepository.save(approval);
+                        statisticService.approvalStatusChanged(approval, previousStatus);
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                            @Override
+                            public void afterCommit() {
+                                rabbitTemplate.convertAndSend(Constants.DIRECT_EXCHANGE, Constants.APPROVAL_REQUEST_QUEUE_KEY,
+                                        approvalBlockchainDTO);
+                            }
+                        });
+                    });
 
 
 
                 } catch (Exception e) {
                     log.error(e.getMessage());
                     log.error("error processing approval id {}", approvalId);
-                    String errorMessage = "approval id " + approvalId + " could not be processed because of" +
-                            "internal error";
-
-
+                    String errorMessage = "approval id " + approvalId + " could not be processed because of " +
+                            "an internal error";
+                    //a notification that cannot be saved must not hold back the remaining approvals either
+                    try {
+                        notificationService.notify(user, errorMessage, NotificationType.ERROR);
+                    } catch (Exception notificationError) {
+                        log.error("error notifying failure of approval id {}: {}", approvalId,
+                                notificationError.getMessage());
+                    }
                 }
             }
 
     }
 
+    @Transactional
     public void modifyApproval(ApprovalModificationRequest approvalModificationRequest, String userOrganizationId) {
         Approval approval = approvalRepository.findById(approvalModificationRequest.getApprovalId()).orElseThrow(
                 ExceptionFactory::resourceNotFound
         );
-        if (!approval.getEvent().getCluster().getOrganization().getId().equals(userOrganizationId))
+        if (!approval.getOrganization().getId().equals(userOrganizationId))
             throw ExceptionFactory.insufficientPermission();
 
         approval.setComments(approvalModificationRequest.getComments());
@@ -119,41 +159,137 @@ public class ApprovalService {
 
     }
 
+    @Transactional(readOnly = true)
     public List<ApprovalInfoProjection> getAllApprovals(String userOrganizationId) {
         return approvalRepository.getApprovalInfo(Status.pending, userOrganizationId);
     }
 
 
+    @Transactional(readOnly = true)
     public Map<String, Long> getCount(String userOrganizationId, Status status) {
         Map<String, Long> countMap = new HashMap<>();
-        Long count = approvalRepository.countByEvent_Cluster_Organization_IdAndStatus(userOrganizationId, status);
+        //pending and rejected are kept as counters, the other statuses are still counted on demand
+        Long count;
+        if (status == Status.pending)
+            count = statisticService.getCounter(userOrganizationId).getPendingCount();
+        else if (status == Status.rejected)
+            count = statisticService.getCounter(userOrganizationId).getRejectedCount();
+        else
+            count = approvalRepository.countByOrganization_IdAndStatus(userOrganizationId, status);
         countMap.put("count", count);
         return countMap;
 
     }
 
+    @Transactional(readOnly = true)
     public List<ApprovalInfoProjection> getAllClusterApprovals(String clusterId, String userOrganizationId) {
-        Cluster cluster = clusterRepository.findById(clusterId).orElseThrow(ExceptionFactory::resourceNotFound);
-        if (!cluster.getOrganization().getId().equals(userOrganizationId))
-            throw ExceptionFactory.insufficientPermission();
-
+        Cluster cluster = getOrganizationCluster(clusterId, userOrganizationId);
         return approvalRepository.getApprovalInfoByClusterAndStatus(cluster, Status.pending);
     }
 
+    @Transactional(readOnly = true)
     public List<ApprovalInfoProjection> getAllEventApprovals(String eventId, String userOrganizationId) {
-        Event event = eventRepository.findById(eventId).orElseThrow(ExceptionFactory::resourceNotFound);
-        if (!event.getCluster().getOrganization().getId().equals(userOrganizationId))
-            throw ExceptionFactory.insufficientPermission();
-
+        Event event = getOrganizationEvent(eventId, userOrganizationId);
         return approvalRepository.getApprovalInfoByEventAndStatus(event, Status.pending);
     }
 
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ApprovalInfoProjection> getApprovalsAfter(String cursor, int size, String userOrganizationId) {
+        return cursorUtility.toCursorPage(approvalRepository.getApprovalInfoAfter(Status.pending, userOrganizationId,
+                decodeCursor(cursor), cursorUtility.limit(size)), this::sortKey);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ApprovalInfoProjection> getClusterApprovalsAfter(String clusterId, String cursor, int size, String userOrganizationId) {
+        Cluster cluster = getOrganizationCluster(clusterId, userOrganizationId);
+        return cursorUtility.toCursorPage(approvalRepository.getApprovalInfoByClusterAndStatusAfter(cluster, Status.pending,
+                decodeCursor(cursor), cursorUtility.limit(size)), this::sortKey);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ApprovalInfoProjection> getEventApprovalsAfter(String eventId, String cursor, int size, String userOrganizationId) {
+        Event event = getOrganizationEvent(eventId, userOrganizationId);
+        return cursorUtility.toCursorPage(approvalRepository.getApprovalInfoByEventAndStatusAfter(event, Status.pending,
+                decodeCursor(cursor), cursorUtility.limit(size)), this::sortKey);
+    }
+
+
+    //permission is checked here, before the response starts, the rows are read later while the body is written
+    public StreamingResponseBody streamAllApprovals(String userOrganizationId) {
+        return writeApprovals(afterId -> approvalRepository.getApprovalInfoAfter(Status.pending, userOrganizationId,
+                afterId, PageRequest.of(0, STREAM_CHUNK_SIZE)));
+    }
+
+    public StreamingResponseBody streamClusterApprovals(String clusterId, String userOrganizationId) {
+        Cluster cluster = getOrganizationCluster(clusterId, userOrganizationId);
+        return writeApprovals(afterId -> approvalRepository.getApprovalInfoByClusterAndStatusAfter(cluster, Status.pending,
+                afterId, PageRequest.of(0, STREAM_CHUNK_SIZE)));
+    }
+
+    public StreamingResponseBody streamEventApprovals(String eventId, String userOrganizationId) {
+        Event event = getOrganizationEvent(eventId, userOrganizationId);
+        return writeApprovals(afterId -> approvalRepository.getApprovalInfoByEventAndStatusAfter(event, Status.pending,
+                afterId, PageRequest.of(0, STREAM_CHUNK_SIZE)));
+    }
+
+
+    //the listing queries only need the id, so an unloaded reference is enough once ownership is checked
+    private Cluster getOrganizationCluster(String clusterId, String userOrganizationId) {
+        ownershipResolver.checkCluster(clusterId, userOrganizationId);
+        return clusterRepository.getReferenceById(clusterId);
+    }
+
+    private Event getOrganizationEvent(String eventId, String userOrganizationId) {
+        ownershipResolver.checkEvent(eventId, userOrganizationId);
+        return eventRepository.getReferenceById(eventId);
+    }
+
+    //cursor is the id of the last approval the client received
+    private String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return "";
+        return cursorUtility.decode(cursor, 1).get(0);
+    }
+
+    private String[] sortKey(ApprovalInfoProjection approval) {
+        return new String[]{approval.getId()};
+    }
+
+    //writes the same envelope as CustomApiResponse. rows are read in keyset chunks, each chunk in its own short
+    //query, so no transaction stays open while a slow client downloads. rows are not flushed individually,
+    //the generator and the servlet buffer decide when a chunk goes out
+    private StreamingResponseBody writeApprovals(Function<String, Slice<ApprovalInfoProjection>> chunkAfter) {
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("responseData");
+                String afterId = "";
+                Slice<ApprovalInfoProjection> chunk;
+                do {
+                    chunk = chunkAfter.apply(afterId);
+                    for (ApprovalInfoProjection approval : chunk)
+                        rowWriter.writeValue(generator, approval);
+                    if (chunk.hasContent())
+                        afterId = chunk.getContent().get(chunk.getNumberOfElements() - 1).getId();
+                } while (chunk.hasNext());
+                generator.writeEndArray();
+                generator.writeStringField("message", "approvals fetched");
+                generator.writeBooleanField("success", true);
+                generator.writeEndObject();
+            }
+        };
+    }
+
+    @Transactional(readOnly = true)
     public ViewApprovalDTO viewApprovalCertificate(String approvalId, String userOrganizationId) {
         Approval approval = approvalRepository.findById(approvalId).orElseThrow(ExceptionFactory::resourceNotFound);
-        if (!approval.getEvent().getCluster().getOrganization().getId().equals(userOrganizationId))
+        if (!approval.getOrganization().getId().equals(userOrganizationId))
             throw ExceptionFactory.insufficientPermission();
 
-        String approvalPath = approval.getEvent().getCluster().getId() + "/"
+        String approvalPath = approval.getCluster().getId() + "/"
                 + approval.getEvent().getId() + "/" + approval.getId();
 
         try {
@@ -175,6 +311,7 @@ public class ApprovalService {
 
     @Transactional
     public void rejectCertificates(String userOrganizationId, List<String> approvalIdList) {
+        statisticService.approvalsRejected(approvalRepository.findRejectable(userOrganizationId, approvalIdList));
         approvalRepository.rejectCertificates(userOrganizationId, approvalIdList);
     }
 
@@ -186,12 +323,12 @@ public class ApprovalService {
                 System.out.println(approvalId);
                 User user = userRepository.findById(userId).orElseThrow(ExceptionFactory::resourceNotFound);
                 Approval approval = approvalRepository.findById(approvalId).orElseThrow(ExceptionFactory::resourceNotFound);
-                if (!approval.getEvent().getCluster().getOrganization().getId().equals(userOrganizationId)) {
+                if (!approval.getOrganization().getId().equals(userOrganizationId)) {
                     throw ExceptionFactory.insufficientPermission();
                 }
 
                 //creating path to retrieve file
-                String approvalPath = approval.getEvent().getCluster().getId() + "/"
+                String approvalPath = approval.getCluster().getId() + "/"
                         + approval.getEvent().getId() + "/" + approval.getId();
 
 
@@ -203,7 +340,7 @@ public class ApprovalService {
                 String hashedValue = checkSumUtility.hashCertificate(stream.readAllBytes());
 
                 //checks whether the hash is already present in the database to correctly identify the certificate and add to error queue
-                if (certificateRepository.findByCertificateHash(hashedValue).isPresent()) {
+                if (certificateRepository.existsByCertificateHash(hashedValue)) {
                     throw ExceptionFactory.customValidationError("Certificate hash already exists");
                 }
 
@@ -218,12 +355,17 @@ public class ApprovalService {
                 certificate.setRecipientEmail(approval.getRecipientEmail());
                 certificate.setIssuedDate(new Date(System.currentTimeMillis()));
                 certificate.setEvent(approval.getEvent());
+                certificate.setCluster(approval.getCluster());
+                certificate.setOrganization(approval.getOrganization());
+                certificate.setExpiryDate(approval.getExpiryDate());
                 certificate.setIssuedByUser(user);
+                Status previousStatus = approval.getStatus();
                 approval.setStatus(Status.approved);
 
                 //right now storing everything in off-chain database
                 approvalRepository.save(approval);
                 certificateRepository.save(certificate);
+                statisticService.approvalStatusChanged(approval, previousStatus);
 
 
             } catch (Exception e) {
@@ -240,7 +382,7 @@ public class ApprovalService {
     public void uploadApprovals(String eventId, String userId, String userOrganizationId,
                                 List<MultipartFile> approvalsCertificates, String approvalsInfo) throws JsonProcessingException {
 
-        Event event = eventRepository.findById(eventId).orElseThrow(ExceptionFactory::resourceNotFound);
+        Event event = eventRepository.findWithClusterById(eventId).orElseThrow(ExceptionFactory::resourceNotFound);
         if (!event.getCluster().getOrganization().getId().equals(userOrganizationId))
             throw ExceptionFactory.insufficientPermission();
 
@@ -265,6 +407,7 @@ public class ApprovalService {
         //path to store in minio
         String clusterId = event.getCluster().getId();
         String approvalPath = clusterId + "/" + eventId;
+        long uploaded = 0;
         for (ApprovalsInfoDTO info : approvalsInfoDTOS) {
 //            if (!approvalsCertificatesMap.containsKey(info.getFileName())) {
 //                to be done
@@ -284,10 +427,13 @@ public class ApprovalService {
                 approval.setRecipientEmail(info.getRecipientEmail());
                 approval.setRecipientName(info.getRecipientName());
                 approval.setEvent(event);
+                approval.setCluster(event.getCluster());
+                approval.setOrganization(event.getCluster().getOrganization());
                 approval.setStatus(Status.pending);
                 approval.setComments(info.getComments());
                 approval.setExpiryDate(info.getExpiryDate());
                 approvalRepository.save(approval);
+                uploaded++;
             } catch (Exception e) {
 
                 //error queue here
@@ -297,6 +443,23 @@ public class ApprovalService {
 
 
         }
+        statisticService.approvalsUploaded(event, uploaded);
+
+    }
+
 
+    //exactly one of email and name. names shorter than the ngram token size are matched as a prefix
+    @Transactional(readOnly = true)
+    public PageResponse<ApprovalInfoProjection> searchByRecipient(String email, String name, int page, int size,
+                                                                  String userOrganizationId) {
+        Pageable pageable = cursorUtility.page(page, size);
+        if (searchUtility.isRecipientEmailSearch(email, name))
+            return cursorUtility.toPage(approvalRepository.searchByRecipientEmail(searchUtility.email(email),
+                    userOrganizationId, pageable));
+        if (!searchUtility.isFullTextSearchable(name))
+            return cursorUtility.toPage(approvalRepository.searchByRecipientNamePrefix(searchUtility.prefix(name),
+                    userOrganizationId, pageable));
+        return cursorUtility.toPage(approvalRepository.searchByRecipientName(searchUtility.phrase(name),
+                userOrganizationId, pageable));
     }
 }
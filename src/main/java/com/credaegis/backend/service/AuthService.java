@@ -1,5 +1,6 @@
 package com.credaegis.backend.service;
 
+import com.credaegis.backend.configuration.mfa.MfaAttemptStore;
 import com.credaegis.backend.configuration.security.principal.CustomUser;
 import com.credaegis.backend.entity.User;
 import com.credaegis.backend.exception.custom.ExceptionFactory;
@@ -31,34 +32,37 @@ public class AuthService {
     private final AuthenticationManager customAuthenticationManager;
     private final CodeVerifier codeVerifier;
     private final UserRepository userRepository;
+    private final MfaAttemptStore mfaAttemptStore;
 
     private final SecurityContextRepository securityContextRepository = new HttpSessionSecurityContextRepository();
 
     public Boolean login(@Valid LoginRequest loginRequest, HttpServletRequest
             request, HttpServletResponse response) {
 
-        User user = userRepository.findByEmail(loginRequest.getEmail()).orElseThrow(
-                () -> ExceptionFactory.customValidationError("Invalid email")
-        );
-
         Authentication authenticationRequest = UsernamePasswordAuthenticationToken.unauthenticated(
                 loginRequest.getEmail(),
                 loginRequest.getPassword()
         );
 
-        securityContextRepository.saveContext(authenticator(authenticationRequest),request,response);
-        if (user.getMfaEnabled())
-            return true;
-
-        return false;
+        //the authenticated principal already carries the mfa flag, no second lookup by email
+        SecurityContext securityContext = authenticator(authenticationRequest);
+        securityContextRepository.saveContext(securityContext,request,response);
+        CustomUser customUser = (CustomUser) securityContext.getAuthentication().getPrincipal();
+        return customUser.getMfaEnabled();
 
     }
 
     public void mfaLogin(@Valid MfaLoginRequest mfaLoginRequest, HttpServletRequest
             request, HttpServletResponse response) {
 
+        //the attempt is counted before anything is checked, only a successful login gives it back
+        String email = mfaLoginRequest.getEmail();
+        if (!mfaAttemptStore.tryAcquire(email))
+            throw ExceptionFactory.tooManyRequests("Too many failed attempts, try again later");
+        if (mfaAttemptStore.isUsed(email, mfaLoginRequest.getOtp()))
+            throw ExceptionFactory.accessDeniedException("Entered OTP is incorrect");
 
-        User user = userRepository.findByEmail(mfaLoginRequest.getEmail()).orElseThrow(
+        User user = userRepository.findByEmail(email).orElseThrow(
                 () -> ExceptionFactory.customValidationError("Invalid email")
         );
         if(!user.getMfaEnabled())
@@ -69,11 +73,16 @@ public class AuthService {
 
 
         Authentication authenticationRequest = UsernamePasswordAuthenticationToken.unauthenticated(
-                mfaLoginRequest.getEmail(),
+                email,
                 mfaLoginRequest.getPassword()
         );
 
-       securityContextRepository.saveContext(authenticator(authenticationRequest),request,response);
+        SecurityContext securityContext = authenticator(authenticationRequest);
+        //claimed only now so a mistyped password does not burn the code, two logins racing with it get one session
+        if (!mfaAttemptStore.markUsed(email, mfaLoginRequest.getOtp()))
+            throw ExceptionFactory.accessDeniedException("Entered OTP is incorrect");
+        mfaAttemptStore.reset(email);
+       securityContextRepository.saveContext(securityContext,request,response);
     }
 
     private SecurityContext authenticator(Authentication authenticationRequest) {
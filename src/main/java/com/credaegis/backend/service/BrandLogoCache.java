@@ -0,0 +1,77 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.constant.BrandLogoRendition;
+import com.credaegis.backend.dto.BrandLogoDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+
+//brand logos by user id, rendition (null for the original) and logo version, bounded by the total bytes held. an upload or removal bumps the
+//version, so a logo cached on another node is never served for the new one and just ages out.
+//the placeholder is read from the classpath once
+@Component
+public class BrandLogoCache {
+
+    private static final String PLACEHOLDER_PATH = "static/placeholder-brandlogo.png";
+
+    private final Cache<LogoKey, BrandLogoDTO> logos;
+    private final BrandLogoDTO placeholder;
+
+
+    public BrandLogoCache(@Value("${brand.logo.cache.max.bytes}") long maximumBytes) {
+        this.logos = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .<LogoKey, BrandLogoDTO>weigher((key, logo) -> logo.getContent().length)
+                .build();
+        try (InputStream placeholderStream = new ClassPathResource(PLACEHOLDER_PATH).getInputStream()) {
+            this.placeholder = new BrandLogoDTO("\"placeholder\"", MediaType.IMAGE_PNG, placeholderStream.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + PLACEHOLDER_PATH, e);
+        }
+    }
+
+
+    public BrandLogoDTO get(String userId, BrandLogoRendition rendition, int version, Supplier<BrandLogoDTO> loader) {
+        return logos.get(new LogoKey(userId, rendition, version), key -> loader.get());
+    }
+
+    public BrandLogoDTO placeholder() {
+        return placeholder;
+    }
+
+    public static String eTag(String userId, BrandLogoRendition rendition, int version) {
+        return "\"" + userId + (rendition == null ? "" : "-" + rendition) + "-" + version + "\"";
+    }
+
+    //frees the old versions right away, and once more after commit for a read that loaded one meanwhile
+    public void evictByUserId(String userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+    }
+
+
+    private void evict(String userId) {
+        logos.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+    }
+
+
+    private record LogoKey(String userId, BrandLogoRendition rendition, int version) {
+    }
+}
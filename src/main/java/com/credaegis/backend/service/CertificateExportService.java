@@ -0,0 +1,108 @@
+package com.credaegis.backend.service;
+
+
+import com.credaegis.backend.constant.ExportFormat;
+import com.credaegis.backend.dto.projection.CertificateInfoProjection;
+import com.credaegis.backend.repository.CertificateRepository;
+import com.credaegis.backend.utility.CsvUtility;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class CertificateExportService {
+
+    private final CertificateRepository certificateRepository;
+    private final CsvUtility csvUtility;
+    private final ObjectMapper objectMapper;
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final List<String> COLUMNS = List.of("id", "certificateName", "recipientName", "recipientEmail",
+            "issuedDate", "expiryDate", "revoked", "revokedDate", "issuerName", "issuerEmail",
+            "eventName", "clusterName", "comments");
+
+
+    //rows are read in keyset chunks, newest first, each chunk in its own short query, so neither the heap
+    //nor an open transaction grows with the size of the export or with how slowly the client reads
+    public StreamingResponseBody exportCertificates(String userOrganizationId, ExportFormat format) {
+        ObjectWriter lineWriter = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return outputStream -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(outputStream, 8192);
+            if (format == ExportFormat.csv)
+                gzip.write(csvUtility.row(COLUMNS).getBytes(StandardCharsets.UTF_8));
+
+            Date issuedDate = Date.valueOf("9999-12-31");
+            String id = "";
+            long rows = 0;
+            Slice<CertificateInfoProjection> chunk;
+            do {
+                chunk = certificateRepository.getCertificateInfoAfter(userOrganizationId, issuedDate, id,
+                        PageRequest.of(0, CHUNK_SIZE));
+                for (CertificateInfoProjection certificate : chunk)
+                    write(gzip, format, lineWriter, columnValues(certificate));
+
+                if (chunk.hasContent()) {
+                    CertificateInfoProjection last = chunk.getContent().get(chunk.getNumberOfElements() - 1);
+                    issuedDate = last.getIssuedDate();
+                    id = last.getId();
+                    rows += chunk.getNumberOfElements();
+                }
+            } while (chunk.hasNext());
+
+            gzip.finish();
+            log.info("exported {} certificates as {} for organization {}", rows, format, userOrganizationId);
+        };
+    }
+
+    public String fileName(ExportFormat format) {
+        return "certificates." + format.name() + ".gz";
+    }
+
+
+    private void write(OutputStream outputStream, ExportFormat format, ObjectWriter lineWriter, List<Object> values) throws IOException {
+        if (format == ExportFormat.csv) {
+            outputStream.write(csvUtility.row(values).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        for (int i = 0; i < COLUMNS.size(); i++)
+            line.put(COLUMNS.get(i), values.get(i));
+        lineWriter.writeValue(outputStream, line);
+        outputStream.write('\n');
+    }
+
+    //dates as yyyy-mm-dd in both formats
+    private List<Object> columnValues(CertificateInfoProjection certificate) {
+        return Arrays.asList(certificate.getId(), certificate.getCertificateName(), certificate.getRecipientName(),
+                certificate.getRecipientEmail(), text(certificate.getIssuedDate()), text(certificate.getExpiryDate()),
+                certificate.getRevoked(), text(certificate.getRevokedDate()), certificate.getIssuerName(),
+                certificate.getIssuerEmail(), certificate.getEventName(), certificate.getClusterName(),
+                certificate.getComments());
+    }
+
+    private String text(Date date) {
+        return date == null ? null : date.toString();
+    }
+}
@@ -1,11 +1,16 @@
 package com.credaegis.backend.service;
 
 
+import com.credaegis.backend.constant.Constants;
 import com.credaegis.backend.dto.CertificateInfoDTO;
 import com.credaegis.backend.dto.projection.CertificateInfoProjection;
 import com.credaegis.backend.entity.Certificate;
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import com.credaegis.backend.http.response.custom.CursorPageResponse;
+import com.credaegis.backend.http.response.custom.PageResponse;
 import com.credaegis.backend.repository.CertificateRepository;
-import jakarta.transaction.Transactional;
+import com.credaegis.backend.utility.CursorUtility;
+import com.credaegis.backend.utility.SearchUtility;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -13,7 +18,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -23,33 +30,123 @@ import java.util.Map;
 public class CertificateService {
 
     private final CertificateRepository certificateRepository;
+    private final CursorUtility cursorUtility;
+    private final StatisticService statisticService;
+    private final SearchUtility searchUtility;
+
+    //first page starts above any real issued date, ids are never empty
+    private static final Date FIRST_PAGE_ISSUED_DATE = Date.valueOf("9999-12-31");
+    private static final String FIRST_PAGE_ID = "";
 
     @Transactional
     public void revokeCertificates(List<String> certificateIds, String userOrganizationId){
-        certificateRepository.revokeCertificates(certificateIds,userOrganizationId);
+        Date revokedDate = new Date(System.currentTimeMillis());
+        statisticService.certificatesRevoked(certificateRepository.findRevocable(certificateIds, userOrganizationId),
+                revokedDate);
+        certificateRepository.revokeCertificates(certificateIds,userOrganizationId, revokedDate);
     }
 
+    @Transactional(readOnly = true)
     public Map<String,Long> getTotalIssuedCertificateCount(String userOrganizationId){
 
 
-        Long count = certificateRepository.countByEvent_Cluster_Organization_Id(userOrganizationId);
+        Long count = statisticService.getCounter(userOrganizationId).getIssuedCount();
         Map<String,Long> countMap = Map.of("count",count);
         return countMap;
     }
 
+    @Transactional(readOnly = true)
     public List<CertificateInfoProjection> getLatestCertificates(int page, int size, String userOrganizationId){
         Pageable pageable = PageRequest.of(page,size, Sort.by(Sort.Order.desc("issuedDate")));
 
         return certificateRepository.getLatestCertificateInfo(pageable,userOrganizationId).getContent();
     }
 
+    @Transactional(readOnly = true)
     public List<CertificateInfoProjection> getLatestCertificatesCluster(int page, int size, String userOrganizationId, String clusterId){
         Pageable pageable = PageRequest.of(page,size, Sort.by(Sort.Order.desc("issuedDate")));
         return certificateRepository.getLatestCertificateInfoByCluster(pageable,clusterId,userOrganizationId).getContent();
     }
 
+    @Transactional(readOnly = true)
     public List<CertificateInfoProjection> getLatestCertificatesEvent(int page, int size, String userOrganizationId, String eventId){
         Pageable pageable = PageRequest.of(page,size, Sort.by(Sort.Order.desc("issuedDate")));
         return certificateRepository.getLatestCertificateInfoByEvent(pageable,eventId,userOrganizationId).getContent();
     }
+
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CertificateInfoProjection> getLatestCertificatesAfter(String cursor, int size, String userOrganizationId){
+        List<String> position = decodeCursor(cursor);
+        return cursorUtility.toCursorPage(certificateRepository.getCertificateInfoAfter(userOrganizationId,
+                Date.valueOf(position.get(0)), position.get(1), cursorUtility.limit(size)),
+                this::sortKey);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CertificateInfoProjection> getLatestCertificatesClusterAfter(String cursor, int size, String userOrganizationId, String clusterId){
+        List<String> position = decodeCursor(cursor);
+        return cursorUtility.toCursorPage(certificateRepository.getCertificateInfoByClusterAfter(clusterId, userOrganizationId,
+                Date.valueOf(position.get(0)), position.get(1), cursorUtility.limit(size)),
+                this::sortKey);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CertificateInfoProjection> getLatestCertificatesEventAfter(String cursor, int size, String userOrganizationId, String eventId){
+        List<String> position = decodeCursor(cursor);
+        return cursorUtility.toCursorPage(certificateRepository.getCertificateInfoByEventAfter(eventId, userOrganizationId,
+                Date.valueOf(position.get(0)), position.get(1), cursorUtility.limit(size)),
+                this::sortKey);
+    }
+
+
+    //cursor is (issuedDate, id) of the last row the client received
+    private List<String> decodeCursor(String cursor){
+        if (cursor == null || cursor.isBlank())
+            return List.of(FIRST_PAGE_ISSUED_DATE.toString(), FIRST_PAGE_ID);
+
+        List<String> position = cursorUtility.decode(cursor, 2);
+        try {
+            Date.valueOf(position.get(0));
+        } catch (IllegalArgumentException e) {
+            throw ExceptionFactory.customValidationError("Invalid cursor");
+        }
+        return position;
+    }
+
+    private String[] sortKey(CertificateInfoProjection certificate){
+        return new String[]{certificate.getIssuedDate().toString(), certificate.getId()};
+    }
+
+
+    //ranked search over certificate and recipient names, terms too short for the ngram index match name prefixes
+    @Transactional(readOnly = true)
+    public List<CertificateInfoProjection> searchCertificates(String query, String userOrganizationId){
+        if (!searchUtility.isFullTextSearchable(query))
+            return certificateRepository.searchByNamePrefix(searchUtility.prefix(query), userOrganizationId,
+                    PageRequest.of(0, Constants.MAX_PAGE_SIZE));
+        return certificateRepository.searchByName(searchUtility.phrase(query), userOrganizationId, Constants.MAX_PAGE_SIZE);
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> autocompleteCertificateName(String prefix, String userOrganizationId){
+        return certificateRepository.autocompleteCertificateName(searchUtility.prefix(prefix), userOrganizationId,
+                PageRequest.of(0, Constants.AUTOCOMPLETE_SIZE));
+    }
+
+
+    //exactly one of email and name. names shorter than the ngram token size are matched as a prefix
+    @Transactional(readOnly = true)
+    public PageResponse<CertificateInfoProjection> searchByRecipient(String email, String name, int page, int size,
+                                                                     String userOrganizationId){
+        Pageable pageable = cursorUtility.page(page, size);
+        if (searchUtility.isRecipientEmailSearch(email, name))
+            return cursorUtility.toPage(certificateRepository.searchByRecipientEmail(searchUtility.email(email),
+                    userOrganizationId, pageable));
+        if (!searchUtility.isFullTextSearchable(name))
+            return cursorUtility.toPage(certificateRepository.searchByRecipientNamePrefix(searchUtility.prefix(name),
+                    userOrganizationId, pageable));
+        return cursorUtility.toPage(certificateRepository.searchByRecipientName(searchUtility.phrase(name),
+                userOrganizationId, pageable));
+    }
 }
@@ -1,6 +1,13 @@
 package com.credaegis.backend.service;
 
+import com.credaegis.backend.configuration.security.service.PrincipalCache;
 import com.credaegis.backend.constant.Constants;
+import com.credaegis.backend.dto.AdminClusterInfoDTO;
+import com.credaegis.backend.dto.ClusterInfoDTO;
+import com.credaegis.backend.dto.ClusterSummaryDTO;
+import com.credaegis.backend.dto.EventInfoDTO;
+import com.credaegis.backend.dto.MemberInfoDTO;
+import com.credaegis.backend.dto.projection.ClusterDetailProjection;
 import com.credaegis.backend.entity.*;
 import com.credaegis.backend.http.request.ClusterCreationRequest;
 import com.credaegis.backend.exception.custom.ExceptionFactory;
@@ -8,14 +15,23 @@ import com.credaegis.backend.http.response.custom.ClusterInfoResponse;
 import com.credaegis.backend.dto.projection.ClusterSearchProjection;
 import com.credaegis.backend.repository.*;
 
+import com.credaegis.backend.utility.CursorUtility;
+import com.credaegis.backend.utility.SearchUtility;
 import com.github.f4b6a3.ulid.UlidCreator;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @AllArgsConstructor
@@ -30,6 +46,10 @@ public class ClusterService {
     private final AdminClusterRepository adminClusterRepository;
     private final OrganizationRepository organizationRepository;
     private final EventRepository eventRepository;
+    private final SearchUtility searchUtility;
+    private final CursorUtility cursorUtility;
+    private final PrincipalCache principalCache;
+    private final AsyncTaskExecutor queryExecutor;
 
 
     public void createCluster(ClusterCreationRequest clusterCreationRequest, String organizationId) {
@@ -85,8 +105,18 @@ public class ClusterService {
     }
 
 
+    @Transactional(readOnly = true)
     public List<ClusterSearchProjection> searchCluster(String userOrganizationId, String name) {
-        return clusterRepository.searchByName(name, userOrganizationId);
+        if (!searchUtility.isFullTextSearchable(name))
+            return clusterRepository.searchByNamePrefix(searchUtility.prefix(name), userOrganizationId,
+                    PageRequest.of(0, Constants.MAX_PAGE_SIZE));
+        return clusterRepository.searchByName(searchUtility.phrase(name), userOrganizationId, Constants.MAX_PAGE_SIZE);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ClusterSearchProjection> autocompleteCluster(String userOrganizationId, String prefix) {
+        return clusterRepository.searchByNamePrefix(searchUtility.prefix(prefix), userOrganizationId,
+                PageRequest.of(0, Constants.AUTOCOMPLETE_SIZE));
     }
 
     public void renameCluster(String clusterId, String userOrganizationId, String newName) {
@@ -114,7 +144,9 @@ public class ClusterService {
         if (cluster.getDeactivated()) throw ExceptionFactory.customValidationError("Cluster already deactivated");
         if (cluster.getOrganization().getId().equals(userOrganizationId)) {
             clusterRepository.deactivateCluster(clusterId);
-            userRepository.deactivateUser(userRepository.findAllUserIdByClusterId(clusterId));
+            List<String> memberIds = userRepository.findAllUserIdByClusterId(clusterId);
+            userRepository.deactivateUser(memberIds);
+            principalCache.evictByUserIds(memberIds);
 
         } else throw ExceptionFactory.insufficientPermission();
     }
@@ -127,7 +159,9 @@ public class ClusterService {
         if (!cluster.getDeactivated()) throw ExceptionFactory.customValidationError("Cluster already activated");
         if (cluster.getOrganization().getId().equals(userOrganizationId)) {
             clusterRepository.activateCluster(clusterId);
-            userRepository.activateUser(userRepository.findAllUserIdByClusterId(clusterId));
+            List<String> memberIds = userRepository.findAllUserIdByClusterId(clusterId);
+            userRepository.activateUser(memberIds);
+            principalCache.evictByUserIds(memberIds);
 
         } else throw ExceptionFactory.insufficientPermission();
     }
@@ -148,11 +182,13 @@ public class ClusterService {
             throw ExceptionFactory.customValidationError("User is deactivated, you must activate to make admin");
 
         if (cluster.getOrganization().getId().equals(userOrganizationId)) {
+            String previousAdminId = cluster.getAdminCluster().getUser().getId();
             cluster.getAdminCluster().getUser().getRole().setRole("ROLE_"+Constants.MEMBER);
             user.getRole().setRole("ROLE_"+Constants.CLUSTER_ADMIN);
             userRepository.save(user);
             clusterRepository.save(cluster);
             adminClusterRepository.updateAdminCluster(newAdminId, clusterId);
+            principalCache.evictByUserIds(List.of(previousAdminId, newAdminId));
 
         } else throw ExceptionFactory.insufficientPermission();
 
@@ -165,8 +201,10 @@ public class ClusterService {
         if (cluster.getLocked()) throw ExceptionFactory.customValidationError("Cluster already locked");
         if (cluster.getOrganization().getId().equals(userOrganizationId)) {
 
+            String adminId = cluster.getAdminCluster().getUser().getId();
             clusterRepository.lockPermissions(clusterId);
-            roleRepository.updateRole("ROLE_"+Constants.LOCKED_CLUSTER_ADMIN, cluster.getAdminCluster().getId());
+            roleRepository.updateRole("ROLE_"+Constants.LOCKED_CLUSTER_ADMIN, adminId);
+            principalCache.evictByUserId(adminId);
         } else throw ExceptionFactory.insufficientPermission();
 
     }
@@ -177,36 +215,71 @@ public class ClusterService {
         if (!cluster.getLocked()) throw ExceptionFactory.customValidationError("Cluster already unlocked");
         if (cluster.getOrganization().getId().equals(userOrganizationId)) {
 
+            String adminId = cluster.getAdminCluster().getUser().getId();
             clusterRepository.unlockPermissions(clusterId);
-            roleRepository.updateRole("ROLE_"+Constants.CLUSTER_ADMIN, cluster.getAdminCluster().getId());
+            roleRepository.updateRole("ROLE_"+Constants.CLUSTER_ADMIN, adminId);
+            principalCache.evictByUserId(adminId);
         } else throw ExceptionFactory.insufficientPermission();
 
     }
 
 
+    @Transactional(readOnly = true)
     public List<ClusterSearchProjection> getAllNameAndId(String organizationId) {
         return clusterRepository.getAllNameAndId(organizationId);
     }
 
-    public List<Cluster> getAllClusters(String organizationId) {
-        return clusterRepository.findByOrganization(organizationRepository.findById(organizationId).orElseThrow(
-                ExceptionFactory::resourceNotFound
-        ));
+    @Transactional(readOnly = true)
+    public List<ClusterSummaryDTO> getAllClusters(String organizationId) {
+        return clusterRepository.getClusterSummaries(organizationId);
     }
 
-    public ClusterInfoResponse getOneCluster(String organizationId, String clusterId) {
+    //the cluster with its admin is one query, the event and member pages run in parallel on the query executor.
+    //every query runs in its own short transaction on the executor, the request thread holds no connection
+    //while it waits for them (with open-in-view it would keep one until the response is written)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ClusterInfoResponse getOneCluster(String organizationId, String clusterId, int eventPage, int eventSize,
+                                             int memberPage, int memberSize) {
+        Pageable eventPageable = cursorUtility.page(eventPage, eventSize);
+        Pageable memberPageable = cursorUtility.page(memberPage, memberSize);
+
+        ClusterDetailProjection cluster = join(CompletableFuture.supplyAsync(
+                () -> clusterRepository.getClusterDetail(clusterId), queryExecutor))
+                .orElseThrow(ExceptionFactory::resourceNotFound);
+        if(!cluster.getOrganizationId().equals(organizationId)) throw ExceptionFactory.insufficientPermission();
+
+        CompletableFuture<Slice<EventInfoDTO>> events = CompletableFuture.supplyAsync(
+                () -> eventRepository.getEventInfoPage(clusterId, eventPageable), queryExecutor);
+        CompletableFuture<Slice<MemberInfoDTO>> members = CompletableFuture.supplyAsync(
+                () -> userRepository.getMemberInfoPage(clusterId, memberPageable), queryExecutor);
 
-        System.out.println(clusterId);
-        Cluster cluster = clusterRepository.findById(clusterId).orElseThrow(ExceptionFactory::resourceNotFound);
-        if(!cluster.getOrganization().getId().equals(organizationId)) throw ExceptionFactory.insufficientPermission();
         ClusterInfoResponse clusterInfoResponse = new ClusterInfoResponse();
-        clusterInfoResponse.setAdminInfo(adminClusterRepository.getAdminClusterInfo(cluster));
-        clusterInfoResponse.setClusterInfo(clusterRepository.getClusterInfo(cluster));
-        clusterInfoResponse.setEvents(eventRepository.getEventInfo(cluster));
-        clusterInfoResponse.setMembers(userRepository.getMemberInfo(cluster));
+        clusterInfoResponse.setClusterInfo(new ClusterInfoDTO(cluster.getId(), cluster.getName(), cluster.getLocked(),
+                cluster.getDeactivated(), cluster.getCreatedOn()));
+        if (cluster.getAdminId() != null)
+            clusterInfoResponse.setAdminInfo(new AdminClusterInfoDTO(cluster.getAdminId(), cluster.getAdminName(),
+                    cluster.getAdminEmail()));
+
+        Slice<EventInfoDTO> eventSlice = join(events);
+        Slice<MemberInfoDTO> memberSlice = join(members);
+        clusterInfoResponse.setEvents(eventSlice.getContent());
+        clusterInfoResponse.setEventsHasNext(eventSlice.hasNext());
+        clusterInfoResponse.setMembers(memberSlice.getContent());
+        clusterInfoResponse.setMembersHasNext(memberSlice.hasNext());
         return clusterInfoResponse;
     }
 
+    //rethrows what the query itself threw instead of the CompletionException wrapping it
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
 //    public void getStats(String userId, String organizationId) {
 //        Organization organization = organizationRepository.findById(organizationId).orElseThrow(
 //                ExceptionFactory::resourceNotFound
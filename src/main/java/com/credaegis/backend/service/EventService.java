@@ -1,6 +1,7 @@
 package com.credaegis.backend.service;
 
 
+import com.credaegis.backend.constant.Constants;
 import com.credaegis.backend.entity.User;
 import com.credaegis.backend.http.request.EventCreationRequest;
 import com.credaegis.backend.entity.Cluster;
@@ -11,10 +12,12 @@ import com.credaegis.backend.dto.projection.EventSearchProjection;
 import com.credaegis.backend.repository.ClusterRepository;
 import com.credaegis.backend.repository.EventRepository;
 import com.credaegis.backend.repository.UserRepository;
+import com.credaegis.backend.utility.SearchUtility;
 import com.github.f4b6a3.ulid.UlidCreator;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -26,17 +29,15 @@ public class EventService {
         private final EventRepository eventRepository;
         private final ClusterRepository clusterRepository;
         private final UserRepository userRepository;
+        private final SearchUtility searchUtility;
+        private final OwnershipResolver ownershipResolver;
 
 
         //creates an event by organization if cluster and organization are same.
-       public void createEvent(EventCreationRequest eventCreationRequest, String userId){
-              Cluster cluster = clusterRepository.findById(eventCreationRequest.getClusterId()).orElseThrow(
-                      ExceptionFactory::resourceNotFound);
-              User user = userRepository.findById(userId).orElseThrow(
-                      ExceptionFactory::resourceNotFound
-              );
-              if(!cluster.getOrganization().getId().equals(user.getOrganization().getId()))
-                  throw ExceptionFactory.insufficientPermission();
+       public void createEvent(EventCreationRequest eventCreationRequest, String userId, String userOrganizationId){
+              ownershipResolver.checkCluster(eventCreationRequest.getClusterId(), userOrganizationId);
+              Cluster cluster = clusterRepository.getReferenceById(eventCreationRequest.getClusterId());
+              User user = userRepository.getReferenceById(userId);
 
               if(eventRepository.existsByNameAndCluster(eventCreationRequest.getEventName(),cluster))
                   throw ExceptionFactory.customValidationError("Event with same name already exists in the cluster");
@@ -53,18 +54,36 @@ public class EventService {
        }
 
 
+       @Transactional(readOnly = true)
        public List<EventSearchProjection> searchByNameAndClusterId(String eventName, String clusterId, String userOrganizationId){
            if(clusterId.isBlank()) clusterId = null;
-              return eventRepository.searchByNameAndClusterId(eventName, clusterId, userOrganizationId);
+              return search(eventName, clusterId, userOrganizationId);
        }
 
+       @Transactional(readOnly = true)
        public List<EventSearchProjection> searchByName(String eventName, String userOrganizationId){
-           return eventRepository.searchByName(eventName, userOrganizationId);
+           return search(eventName, null, userOrganizationId);
 
        }
 
+       @Transactional(readOnly = true)
+       public List<EventSearchProjection> autocompleteEvent(String prefix, String clusterId, String userOrganizationId){
+           if(clusterId != null && clusterId.isBlank()) clusterId = null;
+           return eventRepository.searchByNamePrefix(searchUtility.prefix(prefix), clusterId, userOrganizationId,
+                   PageRequest.of(0, Constants.AUTOCOMPLETE_SIZE));
+       }
+
+       //terms too short for the ngram index fall back to a prefix match
+       private List<EventSearchProjection> search(String eventName, String clusterId, String userOrganizationId){
+           if(!searchUtility.isFullTextSearchable(eventName))
+               return eventRepository.searchByNamePrefix(searchUtility.prefix(eventName), clusterId, userOrganizationId,
+                       PageRequest.of(0, Constants.MAX_PAGE_SIZE));
+           return eventRepository.searchByName(searchUtility.phrase(eventName), clusterId, userOrganizationId,
+                   Constants.MAX_PAGE_SIZE);
+       }
+
        public void activateEvent(String eventId, String userOrganizationId){
-           Event event = eventRepository.findById(eventId).orElseThrow(
+           Event event = eventRepository.findWithClusterById(eventId).orElseThrow(
                    ExceptionFactory::resourceNotFound
            );
            if(!event.getCluster().getOrganization().getId().equals(userOrganizationId))
@@ -75,7 +94,7 @@ public class EventService {
        }
 
        public void deactivateEvent(String eventId, String userOrganizationId){
-           Event event = eventRepository.findById(eventId).orElseThrow(
+           Event event = eventRepository.findWithClusterById(eventId).orElseThrow(
                    ExceptionFactory::resourceNotFound
            );
 
@@ -87,12 +106,7 @@ public class EventService {
 
        public void updateEvent(EventModificationRequest eventModificationRequest, String userOrganizationId,
                                String eventId){
-           Event event = eventRepository.findById(eventId).orElseThrow(
-                   ExceptionFactory::resourceNotFound
-           );
-
-           if(!event.getCluster().getOrganization().getId().equals(userOrganizationId))
-               throw ExceptionFactory.insufficientPermission();
+           ownershipResolver.checkEvent(eventId, userOrganizationId);
 
            eventRepository.updateEvent(eventModificationRequest.getEventName(),
                    eventModificationRequest.getEventDescription(),eventId);
@@ -1,6 +1,7 @@
 package com.credaegis.backend.service;
 
 
+import com.credaegis.backend.configuration.security.service.PrincipalCache;
 import com.credaegis.backend.constant.Constants;
 import com.credaegis.backend.entity.Role;
 import com.credaegis.backend.http.request.MemberCreationRequest;
@@ -12,9 +13,9 @@ import com.credaegis.backend.repository.OrganizationRepository;
 import com.credaegis.backend.repository.RoleRepository;
 import com.credaegis.backend.repository.UserRepository;
 import com.github.f4b6a3.ulid.UlidCreator;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,11 +31,13 @@ public class MemberService {
     private final ClusterRepository clusterRepository;
     private final OrganizationRepository organizationRepository;
     private final RoleRepository roleRepository;
+    private final PrincipalCache principalCache;
+    private final OwnershipResolver ownershipResolver;
 
 
     public void createMember(MemberCreationRequest memberCreationRequest, String userOrganizationId) {
 
-        Cluster cluster = clusterRepository.findById(memberCreationRequest.getClusterId()).orElseThrow(ExceptionFactory::resourceNotFound);
+        ownershipResolver.checkCluster(memberCreationRequest.getClusterId(), userOrganizationId);
         Optional<User> optionalUser = userRepository.findByEmail(memberCreationRequest.getEmail());
         if(optionalUser.isPresent()){
             if(!optionalUser.get().isDeleted())
@@ -42,31 +45,27 @@ public class MemberService {
         }
 
 
-        if (cluster.getOrganization().getId().equals(userOrganizationId)) {
+        Cluster cluster = clusterRepository.getReferenceById(memberCreationRequest.getClusterId());
+        User user = new User();
+        Role role = new Role();
+        user.setId(UlidCreator.getUlid().toString());
+        user.setPassword("sgce");
+        user.setUsername(memberCreationRequest.getUsername());
+        user.setEmail(memberCreationRequest.getEmail());
+        user.setCluster(cluster);
+        role.setId(UlidCreator.getUlid().toString());
+        role.setUser(user);
+        role.setRole("ROLE_"+Constants.MEMBER);
+        user.setOrganization(organizationRepository.getReferenceById(userOrganizationId));
 
-                User user = new User();
-                Role role = new Role();
-                user.setId(UlidCreator.getUlid().toString());
-                user.setPassword("sgce");
-                user.setUsername(memberCreationRequest.getUsername());
-                user.setEmail(memberCreationRequest.getEmail());
-                user.setCluster(cluster);
-                role.setId(UlidCreator.getUlid().toString());
-                role.setUser(user);
-                role.setRole("ROLE_"+Constants.MEMBER);
-                user.setOrganization(organizationRepository.findById(userOrganizationId).orElseThrow(ExceptionFactory::resourceNotFound));
-
-                userRepository.save(user);
-                roleRepository.save(role);
-
-
-        } else throw ExceptionFactory.insufficientPermission();
+        userRepository.save(user);
+        roleRepository.save(role);
 
 
     }
 
     public void activateMember(String memberId, String userId, String userOrganizationId) {
-        User user = userRepository.findById(memberId).orElseThrow(ExceptionFactory::resourceNotFound);
+        User user = userRepository.findWithClusterById(memberId).orElseThrow(ExceptionFactory::resourceNotFound);
         if (!(user.getOrganization().getId().equals(userOrganizationId)))
             throw ExceptionFactory.insufficientPermission();
         if (userId.equals(memberId)) {
@@ -81,6 +80,7 @@ public class MemberService {
         //checks whether admin and the said member are in same organization
 
         userRepository.activateUser(new ArrayList<>(List.of(memberId)));
+        principalCache.evictByUserId(memberId);
 
 
     }
@@ -102,6 +102,7 @@ public class MemberService {
         if (user.getDeactivated()) throw ExceptionFactory.customValidationError("User already deactivated");
 
         userRepository.deactivateUser(new ArrayList<>(List.of(memberId)));
+        principalCache.evictByUserId(memberId);
     }
 
 
@@ -117,8 +118,9 @@ public class MemberService {
         if (user.getRole().getRole().equals("ROLE_" + Constants.CLUSTER_ADMIN))
             throw ExceptionFactory.customValidationError("The member is an  cluster admin, you cannot perform this operation");
 
-        roleRepository.updateRole("ROLE_" + Constants.DELETED, user.getRole().getId());
+        roleRepository.updateRole("ROLE_" + Constants.DELETED, memberId);
         userRepository.deleteUser(memberId);
+        principalCache.evictByUserId(memberId);
 
     }
 
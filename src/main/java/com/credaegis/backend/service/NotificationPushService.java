@@ -0,0 +1,116 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.dto.NotificationDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+//open notification streams of the users connected to this node. a new notification goes out on the
+//user's redis channel and every node writes it to the streams it holds for that user, so it does not
+//matter which node the stream or the write landed on. idle streams get a comment line now and then so
+//proxies do not close them
+@Service
+@Slf4j
+public class NotificationPushService implements MessageListener {
+
+    public static final String CHANNEL_PREFIX = "notifications:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int maxStreamsPerUser;
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+
+    public NotificationPushService(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+                                   @Value("${notification.stream.timeout.millis}") long timeoutMillis,
+                                   @Value("${notification.stream.max.per.user}") int maxStreamsPerUser) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+    }
+
+
+    //past the limit the oldest stream of the user is closed, the browser reconnects it if it is still open
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(userId, emitter));
+
+        SseEmitter[] oldest = new SseEmitter[1];
+        emitters.compute(userId, (id, userEmitters) -> {
+            if (userEmitters == null)
+                userEmitters = new CopyOnWriteArrayList<>();
+            userEmitters.add(emitter);
+            if (userEmitters.size() > maxStreamsPerUser)
+                oldest[0] = userEmitters.remove(0);
+            return userEmitters;
+        });
+        if (oldest[0] != null)
+            oldest[0].complete();
+        return emitter;
+    }
+
+    //called after the notification is committed, a failure here only costs the live update
+    public void publish(String userId, NotificationDTO notification) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL_PREFIX + userId, objectMapper.writeValueAsString(notification));
+        } catch (Exception e) {
+            log.error("Error in publishing notification {}: {}", notification.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String userId = new String(message.getChannel(), StandardCharsets.UTF_8).substring(CHANNEL_PREFIX.length());
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters == null)
+            return;
+
+        String notification = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (SseEmitter emitter : userEmitters)
+            send(userId, emitter, SseEmitter.event().name("notification").data(notification, MediaType.APPLICATION_JSON));
+    }
+
+    @Scheduled(fixedDelayString = "${notification.stream.heartbeat.millis}")
+    public void heartbeat() {
+        emitters.forEach((userId, userEmitters) -> {
+            for (SseEmitter emitter : userEmitters)
+                send(userId, emitter, SseEmitter.event().comment("heartbeat"));
+        });
+    }
+
+
+    //a failed write means the client is gone, the container completes the emitter on its own
+    private void send(String userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            remove(userId, emitter);
+        }
+    }
+
+    private void remove(String userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, userEmitters) -> {
+            userEmitters.remove(emitter);
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+}
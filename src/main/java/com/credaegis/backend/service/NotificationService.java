@@ -0,0 +1,89 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.dto.NotificationDTO;
+import com.credaegis.backend.entity.Notification;
+import com.credaegis.backend.entity.NotificationType;
+import com.credaegis.backend.entity.User;
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import com.credaegis.backend.http.response.custom.CursorPageResponse;
+import com.credaegis.backend.repository.NotificationRepository;
+import com.credaegis.backend.utility.CursorUtility;
+import com.github.f4b6a3.ulid.UlidCreator;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+public class NotificationService {
+
+    private static final Timestamp FIRST_PAGE_TIMESTAMP = Timestamp.valueOf("9999-12-31 00:00:00");
+    private static final String FIRST_PAGE_ID = "";
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationPushService notificationPushService;
+    private final CursorUtility cursorUtility;
+
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<NotificationDTO> getNotificationsAfter(String cursor, int size, String userId) {
+        List<String> position = decodeCursor(cursor);
+        return cursorUtility.toCursorPage(notificationRepository.getNotificationsAfter(userId,
+                        new Timestamp(Long.parseLong(position.get(0))), position.get(1), cursorUtility.limit(size)),
+                this::sortKey);
+    }
+
+    //saved with the caller's transaction and pushed to the user's open streams once that commits,
+    //so a rolled back notification is never shown
+    @Transactional
+    public void notify(User user, String message, NotificationType type) {
+        Notification notification = new Notification();
+        notification.setId(UlidCreator.getUlid().toString());
+        notification.setMessage(message);
+        //the column keeps whole seconds, the pushed copy matches what a page read returns
+        notification.setTimestamp(Timestamp.from(Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+        notification.setUser(user);
+        notification.setType(type);
+        notificationRepository.save(notification);
+
+        NotificationDTO notificationDTO = new NotificationDTO(notification.getId(), notification.getMessage(),
+                notification.getType(), notification.getTimestamp());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                notificationPushService.publish(user.getId(), notificationDTO);
+            }
+        });
+    }
+
+    public SseEmitter subscribe(String userId) {
+        return notificationPushService.subscribe(userId);
+    }
+
+
+    //cursor is (timestamp in epoch millis, id) of the last notification the client received
+    private List<String> decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return List.of(String.valueOf(FIRST_PAGE_TIMESTAMP.getTime()), FIRST_PAGE_ID);
+
+        List<String> position = cursorUtility.decode(cursor, 2);
+        try {
+            Long.parseLong(position.get(0));
+        } catch (NumberFormatException e) {
+            throw ExceptionFactory.customValidationError("Invalid cursor");
+        }
+        return position;
+    }
+
+    private String[] sortKey(NotificationDTO notification) {
+        return new String[]{String.valueOf(notification.getTimestamp().getTime()), notification.getId()};
+    }
+}
@@ -0,0 +1,51 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import com.credaegis.backend.repository.ClusterRepository;
+import com.credaegis.backend.repository.EventRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+
+//answers "which organization owns this cluster / event" for permission checks from memory.
+//clusters never move between organizations and events never move between clusters, and neither is
+//ever deleted, so an entry can not go stale. unknown ids are not cached, so a cluster or event created
+//after a failed lookup is found on the next one. the lookups run in the caller's transaction and may be
+//served by a replica: a lagging one can only miss a new id, which is not cached, never return a stale owner
+@Service
+public class OwnershipResolver {
+
+    private final ClusterRepository clusterRepository;
+    private final EventRepository eventRepository;
+    private final Cache<String, String> clusterOrganizations;
+    private final Cache<String, String> eventOrganizations;
+
+    public OwnershipResolver(ClusterRepository clusterRepository, EventRepository eventRepository,
+                             @Value("${ownership.cache.size}") long maximumSize) {
+        this.clusterRepository = clusterRepository;
+        this.eventRepository = eventRepository;
+        this.clusterOrganizations = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        this.eventOrganizations = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+
+    public void checkCluster(String clusterId, String userOrganizationId) {
+        check(clusterOrganizations.get(clusterId,
+                id -> clusterRepository.findOrganizationIdById(id).orElse(null)), userOrganizationId);
+    }
+
+    public void checkEvent(String eventId, String userOrganizationId) {
+        check(eventOrganizations.get(eventId,
+                id -> eventRepository.findOrganizationIdById(id).orElse(null)), userOrganizationId);
+    }
+
+
+    private void check(String organizationId, String userOrganizationId) {
+        if (organizationId == null)
+            throw ExceptionFactory.resourceNotFound();
+        if (!organizationId.equals(userOrganizationId))
+            throw ExceptionFactory.insufficientPermission();
+    }
+}
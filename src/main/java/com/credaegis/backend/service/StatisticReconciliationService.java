@@ -0,0 +1,38 @@
+package com.credaegis.backend.service;
+
+
+import com.credaegis.backend.repository.OrganizationRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+
+//recounts every organization's statistic counters from the source tables. this refreshes the expired
+//counts and repairs any drift, e.g. from a change whose counter update failed after the row was saved
+@Slf4j
+@Service
+@AllArgsConstructor
+public class StatisticReconciliationService {
+
+    private final OrganizationRepository organizationRepository;
+    private final StatisticService statisticService;
+
+
+    @Scheduled(cron = "${statistics.reconciliation.cron}")
+    public void reconcileAll() {
+        long started = System.currentTimeMillis();
+        int failed = 0;
+        //each organization in its own transaction so one failure does not stop the rest
+        for (String organizationId : organizationRepository.findAllIds()) {
+            try {
+                statisticService.rebuild(organizationId);
+            } catch (Exception e) {
+                failed++;
+                log.error("statistic counter rebuild failed for organization {}: {}", organizationId, e.getMessage());
+            }
+        }
+        log.info("statistic counter reconciliation finished in {} ms, {} organizations failed",
+                System.currentTimeMillis() - started, failed);
+    }
+}
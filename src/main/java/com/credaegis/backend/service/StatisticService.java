@@ -0,0 +1,244 @@
+package com.credaegis.backend.service;
+
+
+import com.credaegis.backend.constant.TrendInterval;
+import com.credaegis.backend.dto.CertificateStatisticsDTO;
+import com.credaegis.backend.dto.ClusterStatisticsDTO;
+import com.credaegis.backend.dto.EventStatisticDTO;
+import com.credaegis.backend.dto.OrganizationStatisticDTO;
+import com.credaegis.backend.dto.StatisticTrendDTO;
+import com.credaegis.backend.dto.projection.StatisticTrendProjection;
+import com.credaegis.backend.entity.*;
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import com.credaegis.backend.repository.*;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+//counters are changed in the caller's transaction (when there is one) together with the state change they describe.
+//expired is the only count that moves without a write (dates pass), it is refreshed by the reconciliation job
+@Slf4j
+@Service
+@AllArgsConstructor
+public class StatisticService {
+
+    private final StatisticCounterRepository statisticCounterRepository;
+    private final StatisticRollupRepository statisticRollupRepository;
+    private final OrganizationRepository organizationRepository;
+    private final ClusterRepository clusterRepository;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+
+    private static final int MAX_TREND_DAYS = 731;
+
+    @Transactional
+    public void approvalsUploaded(Event event, long count) {
+        if (count == 0)
+            return;
+        CounterChange change = new CounterChange(event.getCluster().getOrganization().getId(),
+                event.getCluster().getId(), event.getId());
+        change.pending += count;
+        apply(Map.of(event.getId(), change), today());
+    }
+
+    //call after the new status is set on the approval, previousStatus is what it had before
+    @Transactional
+    public void approvalStatusChanged(Approval approval, Status previousStatus) {
+        Map<String, CounterChange> changes = new LinkedHashMap<>();
+        statusChange(changes, approval, previousStatus, approval.getStatus());
+        if (approval.getStatus() == Status.approved)
+            changeOf(changes, approval).issued++;
+        apply(changes, today());
+    }
+
+    //approvals are loaded before the bulk update, so they still carry their previous status
+    @Transactional
+    public void approvalsRejected(List<Approval> approvals) {
+        Map<String, CounterChange> changes = new LinkedHashMap<>();
+        for (Approval approval : approvals)
+            statusChange(changes, approval, approval.getStatus(), Status.rejected);
+        apply(changes, today());
+    }
+
+    //revokedDate is the date written on the certificates, their revocations are counted on that day
+    @Transactional
+    public void certificatesRevoked(List<Certificate> certificates, Date revokedDate) {
+        Map<String, CounterChange> changes = new LinkedHashMap<>();
+        for (Certificate certificate : certificates)
+            changeOf(changes, certificate.getOrganization().getId(), certificate.getCluster().getId(),
+                    certificate.getEvent().getId()).revoked++;
+        apply(changes, revokedDate);
+    }
+
+
+    @Transactional(readOnly = true)
+    public CertificateStatisticsDTO getCertificateStatistics(String userOrganizationId) {
+        StatisticCounter counter = getCounter(userOrganizationId);
+        return new CertificateStatisticsDTO(counter.getIssuedCount(), counter.getExpiredCount(),
+                counter.getRevokedCount(), counter.getRejectedCount(), counter.getPendingCount());
+    }
+
+    @Transactional(readOnly = true)
+    public OrganizationStatisticDTO getOrganizationStatistics(String userOrganizationId) {
+        Organization organization = organizationRepository.findById(userOrganizationId)
+                .orElseThrow(ExceptionFactory::resourceNotFound);
+        return OrganizationStatisticDTO.builder()
+                .name(organization.getName())
+                .clusterCount(clusterRepository.countByOrganization_Id(userOrganizationId))
+                .eventCount(eventRepository.countByCluster_Organization_Id(userOrganizationId))
+                .MemberCount(userRepository.countByOrganization_IdAndDeletedFalse(userOrganizationId))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ClusterStatisticsDTO> getClusterStatistics(String userOrganizationId) {
+        return statisticCounterRepository.getClusterStatistics(userOrganizationId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<EventStatisticDTO> getEventStatistics(String clusterId, String userOrganizationId) {
+        return statisticCounterRepository.getEventStatistics(clusterId, userOrganizationId);
+    }
+
+    //issued and revoked certificates per day or week for the organization, or one of its clusters or events.
+    //buckets without any activity are filled in with zeros. weeks are always counted whole, the range is
+    //widened to the monday of its first week and the sunday of its last
+    @Transactional(readOnly = true)
+    public List<StatisticTrendDTO> getTrend(String scopeId, String userOrganizationId, Date fromDate, Date toDate,
+                                            TrendInterval interval) {
+        LocalDate from = fromDate.toLocalDate();
+        LocalDate to = toDate.toLocalDate();
+        if (from.isAfter(to))
+            throw ExceptionFactory.customValidationError("From date must not be after to date");
+        if (ChronoUnit.DAYS.between(from, to) > MAX_TREND_DAYS)
+            throw ExceptionFactory.customValidationError("Date range can be at most " + MAX_TREND_DAYS + " days");
+
+        if (interval == TrendInterval.week) {
+            from = from.with(DayOfWeek.MONDAY);
+            to = to.with(DayOfWeek.SUNDAY);
+        }
+
+        String scope = scopeId == null ? userOrganizationId : scopeId;
+        List<StatisticTrendProjection> rows = interval == TrendInterval.week
+                ? statisticRollupRepository.getWeeklyTrend(scope, userOrganizationId, Date.valueOf(from), Date.valueOf(to))
+                : statisticRollupRepository.getDailyTrend(scope, userOrganizationId, fromDate, toDate);
+
+        Map<LocalDate, StatisticTrendProjection> byBucket = new HashMap<>();
+        for (StatisticTrendProjection row : rows)
+            byBucket.put(row.getBucketDate().toLocalDate(), row);
+
+        List<StatisticTrendDTO> trend = new ArrayList<>();
+        LocalDate bucket = from;
+        while (!bucket.isAfter(to)) {
+            StatisticTrendProjection row = byBucket.get(bucket);
+            trend.add(new StatisticTrendDTO(Date.valueOf(bucket),
+                    row == null ? 0L : row.getIssuedCount(), row == null ? 0L : row.getRevokedCount()));
+            bucket = interval == TrendInterval.week ? bucket.plusWeeks(1) : bucket.plusDays(1);
+        }
+        return trend;
+    }
+
+    //a scope that never had anything counted has no row yet
+    @Transactional(readOnly = true)
+    public StatisticCounter getCounter(String scopeId) {
+        return statisticCounterRepository.findById(scopeId).orElseGet(StatisticCounter::new);
+    }
+
+
+    //throws away the organization's counters and daily rollups and recounts them from approvals and certificates
+    @Transactional
+    public void rebuild(String organizationId) {
+        statisticCounterRepository.deleteByOrganizationId(organizationId);
+        statisticCounterRepository.rebuildEventCounters(organizationId);
+        statisticCounterRepository.rebuildClusterCounters(organizationId);
+        statisticCounterRepository.rebuildOrganizationCounter(organizationId);
+        statisticRollupRepository.deleteByOrganizationId(organizationId);
+        statisticRollupRepository.rebuildIssuedEventRollups(organizationId);
+        statisticRollupRepository.rebuildRevokedEventRollups(organizationId);
+        statisticRollupRepository.rebuildClusterRollups(organizationId);
+        statisticRollupRepository.rebuildOrganizationRollups(organizationId);
+        log.info("statistic counters rebuilt for organization {}", organizationId);
+    }
+
+
+    private void statusChange(Map<String, CounterChange> changes, Approval approval, Status from, Status to) {
+        if (from == to)
+            return;
+        CounterChange change = changeOf(changes, approval);
+        change.add(from, -1);
+        change.add(to, 1);
+    }
+
+    private CounterChange changeOf(Map<String, CounterChange> changes, Approval approval) {
+        return changeOf(changes, approval.getOrganization().getId(), approval.getCluster().getId(),
+                approval.getEvent().getId());
+    }
+
+    private CounterChange changeOf(Map<String, CounterChange> changes, String organizationId, String clusterId,
+                                   String eventId) {
+        return changes.computeIfAbsent(eventId, id -> new CounterChange(organizationId, clusterId, eventId));
+    }
+
+    //one upsert per event touched, each adds to the event, its cluster and its organization.
+    //issued and revoked certificates also go into the bucket day's rollup rows
+    private void apply(Map<String, CounterChange> changes, Date bucketDate) {
+        for (CounterChange change : changes.values()) {
+            if (change.isEmpty())
+                continue;
+            statisticCounterRepository.increment(change.organizationId, change.clusterId, change.eventId,
+                    change.issued, change.revoked, change.expired, change.rejected, change.pending);
+            if (change.issued != 0 || change.revoked != 0)
+                statisticRollupRepository.increment(change.organizationId, change.clusterId, change.eventId,
+                        bucketDate, change.issued, change.revoked);
+        }
+    }
+
+
+    //the jvm's date, as issued and revoked dates are written with it (never the database's CURRENT_DATE)
+    private Date today() {
+        return new Date(System.currentTimeMillis());
+    }
+
+
+    private static class CounterChange {
+        private final String organizationId;
+        private final String clusterId;
+        private final String eventId;
+        private long issued;
+        private long revoked;
+        private long expired;
+        private long rejected;
+        private long pending;
+
+        private CounterChange(String organizationId, String clusterId, String eventId) {
+            this.organizationId = organizationId;
+            this.clusterId = clusterId;
+            this.eventId = eventId;
+        }
+
+        //only pending and rejected approvals are counted, approved ones count as issued certificates
+        //and buffered ones are in flight to the blockchain
+        private void add(Status status, long delta) {
+            if (status == Status.pending)
+                pending += delta;
+            else if (status == Status.rejected)
+                rejected += delta;
+        }
+
+        private boolean isEmpty() {
+            return issued == 0 && revoked == 0 && expired == 0 && rejected == 0 && pending == 0;
+        }
+    }
+}
@@ -6,9 +6,9 @@ import com.credaegis.backend.http.response.custom.CertificateVerificationRespons
 import com.credaegis.backend.dto.CertificateVerificationInfoDTO;
 import com.credaegis.backend.repository.CertificateRepository;
 import com.credaegis.backend.utility.CheckSumUtility;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -18,7 +18,7 @@ import java.util.Optional;
 
 @Service
 @AllArgsConstructor
-@Transactional
+@Transactional(readOnly = true)
 public class VerificationService {
 
     private final CertificateRepository certificateRepository;
@@ -30,7 +30,7 @@ public class VerificationService {
         for (MultipartFile file : certificateFiles) {
             System.out.println("innnn");
             CertificateVerificationResponse certificateVerificationResponse = new CertificateVerificationResponse();
-            Optional<Certificate> optionalCertificate = certificateRepository.findByCertificateHash(checkSumUtility.hashCertificate(file.getBytes()));
+            Optional<Certificate> optionalCertificate = certificateRepository.findWithDetailsByCertificateHash(checkSumUtility.hashCertificate(file.getBytes()));
             certificateVerificationResponse.setCertificateName(file.getOriginalFilename());
             if (!optionalCertificate.isPresent()) {
                 certificateVerificationResponse.setIsIssued(false);
@@ -47,13 +47,13 @@ public class VerificationService {
                     .certificateId(certificate.getId())
                     .recipientName(certificate.getRecipientName())
                     .recipientEmail(certificate.getRecipientEmail())
-                    .clusterName(certificate.getEvent().getCluster().getName())
-                    .organizationName(certificate.getEvent().getCluster().getOrganization().getName())
+                    .clusterName(certificate.getCluster().getName())
+                    .organizationName(certificate.getOrganization().getName())
                     .revoked(certificate.getRevoked())
                     .issuedDate(certificate.getIssuedDate())
                     .comments(certificate.getComments())
                     .expiryDate(certificate.getExpiryDate())
-                    .clusterName(certificate.getEvent().getCluster().getName())
+                    .clusterName(certificate.getCluster().getName())
                     .eventName(certificate.getEvent().getName())
                     .build();
 
@@ -0,0 +1,36 @@
+package com.credaegis.backend.utility;
+
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+
+@Service
+public class CsvUtility {
+
+
+    //one rfc 4180 line: fields holding a separator, quote or line break are quoted with inner quotes doubled.
+    //fields starting with a formula character are prefixed with ' so spreadsheets do not evaluate them
+    public String row(List<?> values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0)
+                line.append(',');
+            line.append(field(values.get(i)));
+        }
+        return line.append("\r\n").toString();
+    }
+
+    private String field(Object value) {
+        if (value == null)
+            return "";
+
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0)
+            text = "'" + text;
+
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r"))
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        return text;
+    }
+}
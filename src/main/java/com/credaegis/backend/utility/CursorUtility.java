@@ -0,0 +1,66 @@
+package com.credaegis.backend.utility;
+
+import com.credaegis.backend.constant.Constants;
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import com.credaegis.backend.http.response.custom.CursorPageResponse;
+import com.credaegis.backend.http.response.custom.PageResponse;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+
+//cursors handed to the client are opaque: the sort key values of the last row joined with '|' and base64url encoded,
+//so a client can only pass back what it was given
+@Service
+public class CursorUtility {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode(String... values) {
+        String joined = String.join(SEPARATOR, values);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //keyset queries carry their own ordering, the pageable only limits the slice
+    public Pageable limit(int size) {
+        if (size < 1 || size > Constants.MAX_PAGE_SIZE)
+            throw ExceptionFactory.customValidationError("Page size must be between 1 and " + Constants.MAX_PAGE_SIZE);
+        return PageRequest.of(0, size);
+    }
+
+    //offset pages, for listings that are short enough not to need a cursor
+    public Pageable page(int page, int size) {
+        if (page < 0)
+            throw ExceptionFactory.customValidationError("Page must not be negative");
+        return PageRequest.of(page, limit(size).getPageSize());
+    }
+
+    //the next cursor is built from the sort key of the last row, when there is a next slice at all
+    public <T> CursorPageResponse<T> toCursorPage(Slice<T> slice, Function<T, String[]> sortKey) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() ? encode(sortKey.apply(content.get(content.size() - 1))) : null;
+        return new CursorPageResponse<>(content, nextCursor, slice.hasNext());
+    }
+
+    public <T> PageResponse<T> toPage(Slice<T> slice) {
+        return new PageResponse<>(slice.getContent(), slice.getNumber(), slice.hasNext());
+    }
+
+    public List<String> decode(String cursor, int expectedValues) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> values = List.of(joined.split("\\|", -1));
+            if (values.size() != expectedValues || values.stream().anyMatch(String::isBlank))
+                throw ExceptionFactory.customValidationError("Invalid cursor");
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw ExceptionFactory.customValidationError("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.credaegis.backend.utility;
+
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+
+@Service
+public class ImageUtility {
+
+    //the decoded image takes width x height x 4 bytes, a small file can claim dimensions that do not fit in memory
+    private static final int MAX_PIXELS = 40_000_000;
+    private static final float JPEG_QUALITY = 0.85f;
+
+
+    public BufferedImage read(byte[] bytes) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext())
+                throw ExceptionFactory.customValidationError("Logo must be a png, jpeg, gif or bmp image");
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS)
+                    throw ExceptionFactory.customValidationError("Logo dimensions are too large");
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw ExceptionFactory.customValidationError("Logo could not be read as an image");
+        }
+    }
+
+    public boolean hasAlpha(BufferedImage image) {
+        return image.getColorModel().hasAlpha();
+    }
+
+    //scaled to fit in a maxSize square (never enlarged), png when the image has transparency and jpeg otherwise
+    public byte[] resize(BufferedImage image, int maxSize) throws IOException {
+        boolean alpha = hasAlpha(image);
+        double scale = Math.min(1.0, (double) maxSize / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage resized = image;
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        //halving in steps keeps bilinear scaling from dropping detail on large reductions
+        do {
+            int stepWidth = Math.max(width, resized.getWidth() / 2);
+            int stepHeight = Math.max(height, resized.getHeight() / 2);
+            if (resized != image && stepWidth == resized.getWidth() && stepHeight == resized.getHeight())
+                break;
+            resized = draw(resized, stepWidth, stepHeight, type);
+        } while (resized.getWidth() != width || resized.getHeight() != height);
+
+        return alpha ? png(resized) : jpeg(resized);
+    }
+
+
+    private BufferedImage draw(BufferedImage source, int width, int height, int type) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    private byte[] jpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,49 @@
+package com.credaegis.backend.utility;
+
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+
+//turns user input into full-text phrases and LIKE prefixes for the name searches
+@Service
+public class SearchUtility {
+
+    //must match the mysql server's ngram_token_size, shorter terms have no ngrams to look up
+    @Value("${search.ngram.token.size}")
+    private int ngramTokenSize;
+
+
+    public boolean isFullTextSearchable(String term) {
+        String stripped = term == null ? "" : term.strip();
+        return stripped.codePointCount(0, stripped.length()) >= ngramTokenSize;
+    }
+
+    //a boolean mode phrase, so the ngrams of the term have to appear next to each other (a substring match).
+    //quotes are the only operator that still means something inside a phrase
+    public String phrase(String term) {
+        return "\"" + term.replace("\"", " ").strip() + "\"";
+    }
+
+    //LIKE pattern matching names that start with the term, wildcards typed by the user are matched literally
+    public String prefix(String term) {
+        String stripped = term == null ? "" : term.strip();
+        return stripped.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    //same form recipient emails are stored in
+    public String email(String term) {
+        return term.strip().toLowerCase(Locale.ROOT);
+    }
+
+    //recipient searches take either an email or a name, never both
+    public boolean isRecipientEmailSearch(String email, String name) {
+        boolean hasEmail = email != null && !email.isBlank();
+        boolean hasName = name != null && !name.isBlank();
+        if (hasEmail == hasName)
+            throw ExceptionFactory.customValidationError("Search by either email or name");
+        return hasEmail;
+    }
+}
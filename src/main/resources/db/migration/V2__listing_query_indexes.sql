@@ -0,0 +1,16 @@
+-- approvals: getApprovalInfo / getApprovalInfoByClusterAndStatus / getApprovalInfoByEventAndStatus
+-- and countByEvent_Cluster_Organization_IdAndStatus reach approvals through events, then filter on status.
+CREATE INDEX idx_approvals_event_status ON approvals (event_id, approval_status);
+
+-- certificates: latest listings sort on issued_date; the event scoped variant filters on event_id first.
+CREATE INDEX idx_certificates_event_issued_date ON certificates (event_id, issued_date);
+CREATE INDEX idx_certificates_issued_date ON certificates (issued_date, id);
+
+-- clusters: findByNameAndOrganization, getAllNameAndId and the organization scoped search.
+CREATE INDEX idx_clusters_organization_name ON clusters (organization_id, name);
+
+-- events: existsByNameAndCluster, getEventInfo and the event search joins.
+CREATE INDEX idx_events_cluster_name ON events (cluster_id, name);
+
+-- users: getMemberInfo and findAllUserIdByClusterId filter on cluster and the soft delete flag.
+CREATE INDEX idx_users_cluster_deleted ON users (cluster_id, deleted);
@@ -0,0 +1,48 @@
+-- organization_id and cluster_id are copied from the event's cluster so tenant scoped
+-- filters and permission checks no longer need the approvals -> events -> clusters join chain.
+-- events never move between clusters and clusters never move between organizations.
+
+ALTER TABLE approvals
+    ADD COLUMN cluster_id      VARCHAR(255) NULL,
+    ADD COLUMN organization_id VARCHAR(255) NULL;
+
+ALTER TABLE certificates
+    ADD COLUMN cluster_id      VARCHAR(255) NULL,
+    ADD COLUMN organization_id VARCHAR(255) NULL;
+
+UPDATE approvals a
+    INNER JOIN events e ON e.id = a.event_id
+    INNER JOIN clusters c ON c.id = e.cluster_id
+SET a.cluster_id      = c.id,
+    a.organization_id = c.organization_id;
+
+UPDATE certificates ce
+    INNER JOIN events e ON e.id = ce.event_id
+    INNER JOIN clusters c ON c.id = e.cluster_id
+SET ce.cluster_id      = c.id,
+    ce.organization_id = c.organization_id;
+
+ALTER TABLE approvals
+    MODIFY cluster_id      VARCHAR(255) NOT NULL,
+    MODIFY organization_id VARCHAR(255) NOT NULL;
+
+ALTER TABLE certificates
+    MODIFY cluster_id      VARCHAR(255) NOT NULL,
+    MODIFY organization_id VARCHAR(255) NOT NULL;
+
+CREATE INDEX idx_approvals_organization_status ON approvals (organization_id, approval_status);
+CREATE INDEX idx_approvals_cluster_status ON approvals (cluster_id, approval_status);
+CREATE INDEX idx_certificates_organization_issued_date ON certificates (organization_id, issued_date);
+CREATE INDEX idx_certificates_cluster_issued_date ON certificates (cluster_id, issued_date);
+
+ALTER TABLE approvals
+    ADD CONSTRAINT FK_APPROVALS_ON_CLUSTER FOREIGN KEY (cluster_id) REFERENCES clusters (id);
+
+ALTER TABLE approvals
+    ADD CONSTRAINT FK_APPROVALS_ON_ORGANIZATION FOREIGN KEY (organization_id) REFERENCES organizations (id);
+
+ALTER TABLE certificates
+    ADD CONSTRAINT FK_CERTIFICATES_ON_CLUSTER FOREIGN KEY (cluster_id) REFERENCES clusters (id);
+
+ALTER TABLE certificates
+    ADD CONSTRAINT FK_CERTIFICATES_ON_ORGANIZATION FOREIGN KEY (organization_id) REFERENCES organizations (id);
@@ -0,0 +1,55 @@
+-- one row of running counters per organization, cluster and event (the id is the scope's own id).
+-- rows are incremented in the same transaction as the state change and rebuilt by the reconciliation job.
+CREATE TABLE statistic_counters
+(
+    id              VARCHAR(255) NOT NULL,
+    scope           VARCHAR(20)  NOT NULL,
+    organization_id VARCHAR(255) NOT NULL,
+    cluster_id      VARCHAR(255) NULL,
+    issued_count    BIGINT       NOT NULL DEFAULT 0,
+    revoked_count   BIGINT       NOT NULL DEFAULT 0,
+    expired_count   BIGINT       NOT NULL DEFAULT 0,
+    rejected_count  BIGINT       NOT NULL DEFAULT 0,
+    pending_count   BIGINT       NOT NULL DEFAULT 0,
+    updated_on      datetime     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT pk_statistic_counters PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_statistic_counters_organization_scope ON statistic_counters (organization_id, scope, cluster_id);
+
+-- initial fill, same queries the reconciliation job runs per organization
+INSERT INTO statistic_counters (id, scope, organization_id, cluster_id, issued_count, revoked_count,
+                                expired_count, rejected_count, pending_count)
+SELECT e.id, 'event', c.organization_id, c.id,
+       COALESCE(ce.issued, 0), COALESCE(ce.revoked, 0), COALESCE(ce.expired, 0),
+       COALESCE(a.rejected, 0), COALESCE(a.pending, 0)
+FROM events e
+         INNER JOIN clusters c ON c.id = e.cluster_id
+         LEFT JOIN (SELECT event_id,
+                           COUNT(*)                                                  AS issued,
+                           SUM(CASE WHEN revoked THEN 1 ELSE 0 END)                  AS revoked,
+                           SUM(CASE WHEN expiry_date < CURRENT_DATE THEN 1 ELSE 0 END) AS expired
+                    FROM certificates
+                    GROUP BY event_id) ce ON ce.event_id = e.id
+         LEFT JOIN (SELECT event_id,
+                           SUM(CASE WHEN approval_status = 'rejected' THEN 1 ELSE 0 END) AS rejected,
+                           SUM(CASE WHEN approval_status = 'pending' THEN 1 ELSE 0 END)  AS pending
+                    FROM approvals
+                    GROUP BY event_id) a ON a.event_id = e.id;
+
+INSERT INTO statistic_counters (id, scope, organization_id, cluster_id, issued_count, revoked_count,
+                                expired_count, rejected_count, pending_count)
+SELECT cluster_id, 'cluster', organization_id, cluster_id,
+       SUM(issued_count), SUM(revoked_count), SUM(expired_count), SUM(rejected_count), SUM(pending_count)
+FROM statistic_counters
+WHERE scope = 'event'
+GROUP BY organization_id, cluster_id;
+
+INSERT INTO statistic_counters (id, scope, organization_id, cluster_id, issued_count, revoked_count,
+                                expired_count, rejected_count, pending_count)
+SELECT o.id, 'organization', o.id, NULL,
+       COALESCE(SUM(s.issued_count), 0), COALESCE(SUM(s.revoked_count), 0), COALESCE(SUM(s.expired_count), 0),
+       COALESCE(SUM(s.rejected_count), 0), COALESCE(SUM(s.pending_count), 0)
+FROM organizations o
+         LEFT JOIN statistic_counters s ON s.organization_id = o.id AND s.scope = 'event'
+GROUP BY o.id;
@@ -0,0 +1,41 @@
+-- issued and revoked certificates per day for every organization, cluster and event (scope_id is the scope's id).
+-- trend queries read a date range of one scope straight off the primary key, weeks are summed from days.
+CREATE TABLE statistic_rollups
+(
+    scope_id        VARCHAR(255) NOT NULL,
+    bucket_date     date         NOT NULL,
+    scope           VARCHAR(20)  NOT NULL,
+    organization_id VARCHAR(255) NOT NULL,
+    cluster_id      VARCHAR(255) NULL,
+    issued_count    BIGINT       NOT NULL DEFAULT 0,
+    revoked_count   BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT pk_statistic_rollups PRIMARY KEY (scope_id, bucket_date)
+);
+
+CREATE INDEX idx_statistic_rollups_organization_scope ON statistic_rollups (organization_id, scope);
+
+-- initial fill, same queries the reconciliation job runs per organization
+INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, cluster_id, issued_count, revoked_count)
+SELECT event_id, issued_date, 'event', organization_id, cluster_id, COUNT(*), 0
+FROM certificates
+GROUP BY event_id, issued_date, organization_id, cluster_id;
+
+INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, cluster_id, issued_count, revoked_count)
+SELECT event_id, revoked_date, 'event', organization_id, cluster_id, 0, COUNT(*)
+FROM certificates
+WHERE revoked = TRUE
+  AND revoked_date IS NOT NULL
+GROUP BY event_id, revoked_date, organization_id, cluster_id
+ON DUPLICATE KEY UPDATE revoked_count = VALUES(revoked_count);
+
+INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, cluster_id, issued_count, revoked_count)
+SELECT cluster_id, bucket_date, 'cluster', organization_id, cluster_id, SUM(issued_count), SUM(revoked_count)
+FROM statistic_rollups
+WHERE scope = 'event'
+GROUP BY cluster_id, bucket_date, organization_id;
+
+INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, cluster_id, issued_count, revoked_count)
+SELECT organization_id, bucket_date, 'organization', organization_id, NULL, SUM(issued_count), SUM(revoked_count)
+FROM statistic_rollups
+WHERE scope = 'event'
+GROUP BY organization_id, bucket_date;
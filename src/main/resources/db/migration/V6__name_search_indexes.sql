@@ -0,0 +1,12 @@
+-- ngram full-text indexes back the name searches, a phrase match over ngrams behaves like LIKE '%term%'
+-- but is answered from the index. terms shorter than the server's ngram_token_size (default 2) cannot be
+-- matched this way, the application falls back to prefix LIKE on the b-tree indexes for those.
+-- innodb keeps these in sync with inserts and renames itself.
+CREATE FULLTEXT INDEX ftx_clusters_name ON clusters (name) WITH PARSER ngram;
+
+CREATE FULLTEXT INDEX ftx_events_name ON events (name) WITH PARSER ngram;
+
+CREATE FULLTEXT INDEX ftx_certificates_names ON certificates (certificate_name, recipient_name) WITH PARSER ngram;
+
+-- certificate name autocomplete and the short term fallback
+CREATE INDEX idx_certificates_organization_certificate_name ON certificates (organization_id, certificate_name);
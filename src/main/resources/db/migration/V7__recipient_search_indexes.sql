@@ -0,0 +1,17 @@
+-- recipient emails are stored trimmed and lower case from now on, so an exact match on the
+-- normalized search term can use the index
+UPDATE approvals
+SET recipient_email = LOWER(TRIM(recipient_email));
+
+UPDATE certificates
+SET recipient_email = LOWER(TRIM(recipient_email));
+
+-- lookups by email, newest first, and by name prefix
+CREATE INDEX idx_certificates_organization_recipient_email ON certificates (organization_id, recipient_email, issued_date);
+CREATE INDEX idx_certificates_organization_recipient_name ON certificates (organization_id, recipient_name);
+CREATE INDEX idx_approvals_organization_recipient_email ON approvals (organization_id, recipient_email);
+CREATE INDEX idx_approvals_organization_recipient_name ON approvals (organization_id, recipient_name);
+
+-- substring matches on the recipient name, MATCH needs an index over exactly the columns it names
+CREATE FULLTEXT INDEX ftx_certificates_recipient_name ON certificates (recipient_name) WITH PARSER ngram;
+CREATE FULLTEXT INDEX ftx_approvals_recipient_name ON approvals (recipient_name) WITH PARSER ngram;
@@ -0,0 +1,3 @@
+-- bumped on every brand logo upload and removal, cached logos and their etags are keyed by it
+ALTER TABLE users
+    ADD COLUMN brand_logo_version INT NOT NULL DEFAULT 0;
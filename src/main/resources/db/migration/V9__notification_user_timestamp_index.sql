@@ -0,0 +1,2 @@
+-- notifications: getNotificationsAfter reads one user's notifications newest first, a page at a time
+CREATE INDEX idx_notifications_user_timestamp ON notifications (user_id, timestamp, id);
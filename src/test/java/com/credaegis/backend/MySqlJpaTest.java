@@ -0,0 +1,35 @@
+package com.credaegis.backend;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+
+//flyway migrations are written for mysql, so repository tests run against a real, disposable mysql schema.
+//subclasses are annotated with @EnabledIfEnvironmentVariable(named = "TEST_MYSQL_URL", matches = ".+")
+//(junit conditions are not inherited) so they only run when a schema is given, e.g.
+//TEST_MYSQL_URL=jdbc:mysql://localhost:3306/credaegis_test TEST_MYSQL_USERNAME=root TEST_MYSQL_PASSWORD=secret mvn test
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public abstract class MySqlJpaTest {
+
+
+    @DynamicPropertySource
+    static void mysqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("TEST_MYSQL_URL"));
+        registry.add("spring.datasource.username", () -> env("TEST_MYSQL_USERNAME", "root"));
+        registry.add("spring.datasource.password", () -> env("TEST_MYSQL_PASSWORD", ""));
+        registry.add("spring.flyway.url", () -> System.getenv("TEST_MYSQL_URL"));
+        registry.add("spring.flyway.user", () -> env("TEST_MYSQL_USERNAME", "root"));
+        registry.add("spring.flyway.password", () -> env("TEST_MYSQL_PASSWORD", ""));
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                RecordingStatementInspector.class::getName);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+}
@@ -0,0 +1,43 @@
+package com.credaegis.backend;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+
+//collects every sql statement hibernate prepares while a block is recorded
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> recorded = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = recorded.get();
+        if (statements != null)
+            statements.add(sql);
+        return sql;
+    }
+
+    public static List<String> record(Runnable block) {
+        return recordResult(() -> {
+            block.run();
+            return null;
+        }).statements();
+    }
+
+    public static <T> Recording<T> recordResult(Supplier<T> block) {
+        List<String> statements = new ArrayList<>();
+        recorded.set(statements);
+        try {
+            T result = block.get();
+            return new Recording<>(result, statements);
+        } finally {
+            recorded.remove();
+        }
+    }
+
+    public record Recording<T>(T result, List<String> statements) {
+    }
+}
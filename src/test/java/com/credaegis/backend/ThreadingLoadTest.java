@@ -0,0 +1,169 @@
+package com.credaegis.backend;
+
+import com.credaegis.backend.constant.Constants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.ByteArrayOutputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+//compares one build started twice against the same mysql, minio and redis: once with
+//spring.threads.virtual.enabled=false and once with true (on java 21). only runs when both are given, e.g.
+//LOAD_TEST_PLATFORM_URL=http://localhost:8081 LOAD_TEST_VIRTUAL_URL=http://localhost:8082
+//LOAD_TEST_EMAIL=admin@credaegis.com LOAD_TEST_PASSWORD=secret LOAD_TEST_EVENT_ID=<throwaway event> mvn test -Dtest=ThreadingLoadTest
+//the upload run leaves its approvals behind in that event
+@EnabledIfEnvironmentVariable(named = "LOAD_TEST_VIRTUAL_URL", matches = ".+")
+class ThreadingLoadTest {
+
+    private static final int CONCURRENCY = Integer.parseInt(env("LOAD_TEST_CONCURRENCY", "200"));
+    private static final int REQUESTS = Integer.parseInt(env("LOAD_TEST_REQUESTS", "2000"));
+    private static final String BOUNDARY = "load-test-boundary";
+
+
+    @Test
+    void verifyEndpoint() throws Exception {
+        compare("verify", baseUrl -> i -> multipart(baseUrl + Constants.ROUTEV1 + "/external/verify",
+                List.of(filePart("certificates", "certificate-" + i + ".pdf"))));
+    }
+
+    @Test
+    void approvalUploadEndpoint() throws Exception {
+        String eventId = System.getenv("LOAD_TEST_EVENT_ID");
+        assertThat(eventId).as("LOAD_TEST_EVENT_ID").isNotBlank();
+        compare("approval upload", baseUrl -> i -> {
+            String fileName = "approval-" + i + ".pdf";
+            String info = "[{\"fileName\":\"" + fileName + "\",\"recipientName\":\"Load Test\"," +
+                    "\"recipientEmail\":\"load-test@credaegis.com\"}]";
+            return multipart(baseUrl + Constants.ROUTEV1 + "/approval-control/upload/" + eventId,
+                    List.of(filePart("approvals", fileName), textPart("info", info)));
+        });
+    }
+
+
+    private void compare(String endpoint, RequestFactory requestFactory) throws Exception {
+        Result platform = run(System.getenv("LOAD_TEST_PLATFORM_URL"), requestFactory);
+        Result virtual = run(System.getenv("LOAD_TEST_VIRTUAL_URL"), requestFactory);
+
+        System.out.printf("%s, %d requests, %d concurrent%n", endpoint, REQUESTS, CONCURRENCY);
+        System.out.printf("  platform threads: %8.1f req/s  p99 %6d ms  failed %d%n",
+                platform.throughput(), platform.p99Millis(), platform.failed());
+        System.out.printf("  virtual threads:  %8.1f req/s  p99 %6d ms  failed %d%n",
+                virtual.throughput(), virtual.p99Millis(), virtual.failed());
+
+        assertThat(platform.failed()).as("failed requests with platform threads").isZero();
+        assertThat(virtual.failed()).as("failed requests with virtual threads").isZero();
+    }
+
+    private Result run(String baseUrl, RequestFactory requestFactory) throws Exception {
+        HttpClient client = HttpClient.newBuilder().cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(10)).build();
+        login(client, baseUrl);
+        IntFunction<HttpRequest> requests = requestFactory.create(baseUrl);
+
+        //warm up the jit and the connection pools before measuring
+        send(client, requests, Math.min(REQUESTS / 10, 200));
+
+        long start = System.nanoTime();
+        long[] latencies = send(client, requests, REQUESTS);
+        long elapsed = System.nanoTime() - start;
+
+        int failed = (int) Arrays.stream(latencies).filter(latency -> latency < 0).count();
+        long[] succeeded = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        long p99 = succeeded.length == 0 ? 0 : succeeded[(int) Math.ceil(succeeded.length * 0.99) - 1];
+        return new Result(REQUESTS / (elapsed / 1e9), p99 / 1_000_000, failed);
+    }
+
+    //latency in nanoseconds per request, negative for requests that did not get a 2xx
+    private long[] send(HttpClient client, IntFunction<HttpRequest> requests, int count) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                results.add(executor.submit(() -> {
+                    HttpRequest request = requests.apply(index);
+                    long start = System.nanoTime();
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        return status / 100 == 2 ? System.nanoTime() - start : -1L;
+                    } catch (Exception e) {
+                        return -1L;
+                    }
+                }));
+            }
+            long[] latencies = new long[count];
+            for (int i = 0; i < count; i++)
+                latencies[i] = results.get(i).get();
+            return latencies;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void login(HttpClient client, String baseUrl) throws Exception {
+        String body = "{\"email\":\"" + System.getenv("LOAD_TEST_EMAIL") + "\",\"password\":\""
+                + System.getenv("LOAD_TEST_PASSWORD") + "\"}";
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + Constants.ROUTEV1 + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("login at " + baseUrl).isEqualTo(200);
+    }
+
+    private HttpRequest multipart(String url, List<byte[]> parts) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] part : parts)
+            body.writeBytes(part);
+        body.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .timeout(Duration.ofMinutes(1))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())).build();
+    }
+
+    //random content so every file hashes differently, like real certificates
+    private byte[] filePart(String name, String fileName) {
+        byte[] content = new byte[64 * 1024];
+        ThreadLocalRandom.current().nextBytes(content);
+        ByteArrayOutputStream part = new ByteArrayOutputStream();
+        part.writeBytes(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\""
+                + fileName + "\"\r\nContent-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        part.writeBytes(content);
+        part.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        return part.toByteArray();
+    }
+
+    private byte[] textPart(String name, String value) {
+        return ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+
+
+    private interface RequestFactory {
+        IntFunction<HttpRequest> create(String baseUrl);
+    }
+
+    private record Result(double throughput, long p99Millis, int failed) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.credaegis.backend.configuration.datasource;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.sql.Connection;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+class ReplicaAwareJpaDialectTest {
+
+    private final ReplicaAwareJpaDialect dialect = new ReplicaAwareJpaDialect();
+    private final EntityManager entityManager = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+    private final SessionImplementor session = mock(SessionImplementor.class, RETURNS_DEEP_STUBS);
+
+
+    @BeforeEach
+    void setUp() {
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.getHibernateFlushMode()).thenReturn(FlushMode.AUTO);
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        when(session.getJdbcCoordinator().getLogicalConnection().getConnectionHandlingMode())
+                .thenReturn(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+        when(session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection())
+                .thenReturn(mock(Connection.class));
+    }
+
+
+    @Test
+    void readOnlyTransactionsDoNotFillTheCache() throws Exception {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+
+        dialect.cleanupTransaction(dialect.beginTransaction(entityManager, definition));
+
+        InOrder order = inOrder(session);
+        order.verify(session).setCacheMode(CacheMode.GET);
+        order.verify(session).setCacheMode(CacheMode.NORMAL);
+    }
+
+    @Test
+    void readWriteTransactionsKeepTheSessionCacheMode() throws Exception {
+        dialect.cleanupTransaction(dialect.beginTransaction(entityManager, new DefaultTransactionDefinition()));
+
+        verify(session, never()).setCacheMode(CacheMode.GET);
+    }
+}
@@ -0,0 +1,108 @@
+package com.credaegis.backend.configuration.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+class ReplicaDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final DataSource primary = dataSource(primaryConnection);
+
+
+    @Test
+    void takesReplicasInTurn() throws SQLException {
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(
+                List.of(dataSource(first), dataSource(second)), primary, 5);
+
+        assertThat(List.of(replicaDataSource.getConnection(), replicaDataSource.getConnection(),
+                replicaDataSource.getConnection())).containsExactly(first, second, first);
+    }
+
+    @Test
+    void skipsLaggingReplicasUntilTheyCatchUp() throws SQLException {
+        Connection lagging = replicaConnection(60L);
+        Connection current = replicaConnection(0L);
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(
+                List.of(dataSource(lagging), dataSource(current)), primary, 5);
+
+        replicaDataSource.checkLag();
+        assertThat(List.of(replicaDataSource.getConnection(), replicaDataSource.getConnection()))
+                .containsOnly(current);
+
+        ResultSet caughtUp = status(2L);
+        Statement statement = lagging.createStatement();
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(caughtUp);
+        replicaDataSource.checkLag();
+        assertThat(List.of(replicaDataSource.getConnection(), replicaDataSource.getConnection()))
+                .containsExactlyInAnyOrder(lagging, current);
+    }
+
+    @Test
+    void fallsBackToThePrimary() throws SQLException {
+        DataSource unreachable = mock(DataSource.class);
+        when(unreachable.getConnection()).thenThrow(new SQLException("connection refused"));
+        Connection stopped = replicaConnection(null);
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(
+                List.of(unreachable, dataSource(stopped)), primary, 5);
+
+        replicaDataSource.checkLag();
+
+        assertThat(replicaDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void countsAnInstanceWithoutReplicationAsCaughtUp() throws SQLException {
+        Connection standIn = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet empty = mock(ResultSet.class);
+        when(standIn.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(empty);
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(List.of(dataSource(standIn)), primary, 5);
+
+        replicaDataSource.checkLag();
+
+        assertThat(replicaDataSource.getConnection()).isSameAs(standIn);
+    }
+
+
+    private DataSource dataSource(Connection connection) {
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            when(dataSource.getConnection()).thenReturn(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+
+    //null lag is what mysql reports while the replication thread is stopped
+    private Connection replicaConnection(Long lag) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet status = status(lag);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(status);
+        return connection;
+    }
+
+    private ResultSet status(Long lag) throws SQLException {
+        ResultSet status = mock(ResultSet.class);
+        when(status.next()).thenReturn(true);
+        when(status.getLong("Seconds_Behind_Source")).thenReturn(lag == null ? 0L : lag);
+        when(status.wasNull()).thenReturn(lag == null);
+        return status;
+    }
+}
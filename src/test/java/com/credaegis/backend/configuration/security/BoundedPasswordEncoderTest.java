@@ -0,0 +1,40 @@
+package com.credaegis.backend.configuration.security;
+
+import com.credaegis.backend.exception.custom.CustomException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void hashesOnThePoolAndFlagsWeakerHashesForUpgrade() {
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(5, 1, 1, 5000);
+
+        String hash = passwordEncoder.encode("secret");
+
+        assertThat(passwordEncoder.matches("secret", hash)).isTrue();
+        assertThat(passwordEncoder.matches("wrong", hash)).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(hash)).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    void refusesWorkThePoolCannotTake() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), executor, 5000);
+
+        assertThatThrownBy(() -> passwordEncoder.matches("secret", "$2a$04$invalid"))
+                .isInstanceOfSatisfying(CustomException.class,
+                        e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+}
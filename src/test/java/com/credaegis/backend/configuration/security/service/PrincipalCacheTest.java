@@ -0,0 +1,60 @@
+package com.credaegis.backend.configuration.security.service;
+
+import com.credaegis.backend.configuration.security.principal.CustomUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+
+class PrincipalCacheTest {
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final PrincipalCache principalCache = new PrincipalCache(stringRedisTemplate, 300, 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+
+    @Test
+    void loadsOncePerEmailUntilTheUserIsEvicted() {
+        principalCache.get("admin@credaegis.com", this::load);
+        principalCache.get("admin@credaegis.com", this::load);
+        principalCache.get("member@credaegis.com", this::load);
+        assertThat(loads).hasValue(2);
+
+        principalCache.evictByUserId("id-admin@credaegis.com");
+        principalCache.get("admin@credaegis.com", this::load);
+        principalCache.get("member@credaegis.com", this::load);
+        assertThat(loads).hasValue(3);
+        verify(stringRedisTemplate).convertAndSend(PrincipalCache.EVICTION_CHANNEL, "id-admin@credaegis.com");
+    }
+
+    @Test
+    void dropsTheUserWhenAnotherNodeEvictsIt() {
+        principalCache.get("admin@credaegis.com", this::load);
+
+        principalCache.onMessage(new DefaultMessage(PrincipalCache.EVICTION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "id-admin@credaegis.com".getBytes(StandardCharsets.UTF_8)), null);
+        principalCache.get("admin@credaegis.com", this::load);
+
+        assertThat(loads).hasValue(2);
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+
+    private CustomUser load(String email) {
+        loads.incrementAndGet();
+        return new CustomUser(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), "id-" + email, email,
+                "organization", "password", false);
+    }
+}
@@ -0,0 +1,70 @@
+package com.credaegis.backend.configuration.session;
+
+import com.credaegis.backend.configuration.security.principal.CustomUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class CompactSessionSerializerTest {
+
+    private final CompactSessionSerializer serializer = new CompactSessionSerializer();
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+
+    @Test
+    void rebuildsTheLoggedInSecurityContext() {
+        SecurityContext context = (SecurityContext) serializer.deserialize(serializer.serialize(loggedIn()));
+
+        assertThat(context.getAuthentication().isAuthenticated()).isTrue();
+        assertThat(context.getAuthentication().getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+        CustomUser user = (CustomUser) context.getAuthentication().getPrincipal();
+        assertThat(user.getId()).isEqualTo("01JCXG7R3M6Q2B8S5V9W4Y1Z0A");
+        assertThat(user.getEmail()).isEqualTo("admin@credaegis.com");
+        assertThat(user.getOrganizationId()).isEqualTo("01JCXG7R3M6Q2B8S5V9W4Y1Z0B");
+        assertThat(user.getMfaEnabled()).isTrue();
+        assertThat(user.getPassword()).isNull();
+    }
+
+    @Test
+    void keepsSessionTimestampsAndOtherValues() {
+        assertThat(serializer.deserialize(serializer.serialize(1731400000000L))).isEqualTo(1731400000000L);
+        assertThat(serializer.deserialize(serializer.serialize(1800))).isEqualTo(1800);
+        assertThat(serializer.deserialize(serializer.serialize(Map.of("key", "value")))).isEqualTo(Map.of("key", "value"));
+        assertThat(serializer.deserialize(serializer.serialize(null))).isNull();
+    }
+
+    @Test
+    void readsSessionsWrittenWithJdkSerialization() {
+        SecurityContext context = (SecurityContext) serializer.deserialize(jdkSerializer.serialize(loggedIn()));
+
+        assertThat(((CustomUser) context.getAuthentication().getPrincipal()).getEmail()).isEqualTo("admin@credaegis.com");
+        assertThat(serializer.deserialize(jdkSerializer.serialize(1731400000000L))).isEqualTo(1731400000000L);
+    }
+
+    @Test
+    void securityContextIsAFractionOfTheJdkSize() {
+        byte[] jdk = jdkSerializer.serialize(loggedIn());
+        byte[] compact = serializer.serialize(loggedIn());
+
+        assertThat(compact.length).isLessThan(jdk.length / 5);
+    }
+
+
+    private SecurityContext loggedIn() {
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        CustomUser user = new CustomUser(authorities, "01JCXG7R3M6Q2B8S5V9W4Y1Z0A", "admin@credaegis.com",
+                "01JCXG7R3M6Q2B8S5V9W4Y1Z0B", "$2a$10$hash", true);
+        return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null, authorities));
+    }
+}
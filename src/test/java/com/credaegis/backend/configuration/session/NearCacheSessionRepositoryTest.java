@@ -0,0 +1,129 @@
+package com.credaegis.backend.configuration.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+class NearCacheSessionRepositoryTest {
+
+    private static final String ID = "0b7e5c2a-5d0e-4a8e-9a57-1f3c2b7d9e11";
+    private static final String KEY = "spring:session:sessions:" + ID;
+
+    @SuppressWarnings("unchecked")
+    private final RedisOperations<String, Object> redis = mock(RedisOperations.class);
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, String, Object> hash = mock(HashOperations.class);
+    private final NearCacheSessionRepository repository = new NearCacheSessionRepository(redis,
+            Duration.ofMinutes(30), Duration.ofSeconds(10), 100, Duration.ofSeconds(60));
+    private Instant lastAccessedTime;
+
+
+    @BeforeEach
+    void setUp() {
+        doReturn(hash).when(redis).opsForHash();
+        lastAccessedTime = Instant.now().minusSeconds(5);
+        Map<String, Object> entries = new HashMap<>();
+        entries.put("creationTime", lastAccessedTime.minusSeconds(600).toEpochMilli());
+        entries.put("lastAccessedTime", lastAccessedTime.toEpochMilli());
+        entries.put("maxInactiveInterval", 1800);
+        entries.put("sessionAttr:SPRING_SECURITY_CONTEXT", "context");
+        when(hash.entries(KEY)).thenReturn(entries);
+    }
+
+
+    @Test
+    void loadsASessionFromRedisOnceWithinTheTtl() {
+        repository.findById(ID);
+        NearCacheSessionRepository.NearCacheSession session = repository.findById(ID);
+
+        assertThat(session.<String>getAttribute("SPRING_SECURITY_CONTEXT")).isEqualTo("context");
+        verify(hash, times(1)).entries(KEY);
+    }
+
+    @Test
+    void coalescesLastAccessedTimeWrites() {
+        NearCacheSessionRepository.NearCacheSession session = repository.findById(ID);
+        session.setLastAccessedTime(lastAccessedTime.plusSeconds(30));
+        repository.save(session);
+        verify(hash, never()).putAll(any(), anyMap());
+
+        session = repository.findById(ID);
+        assertThat(session.getLastAccessedTime()).isEqualTo(lastAccessedTime.plusSeconds(30));
+        session.setLastAccessedTime(lastAccessedTime.plusSeconds(61));
+        repository.save(session);
+        verify(hash).putAll(KEY, Map.of("lastAccessedTime", lastAccessedTime.plusSeconds(61).toEpochMilli()));
+        verify(redis).expire(KEY, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void writesChangesThroughAndTellsTheOtherNodes() {
+        NearCacheSessionRepository.NearCacheSession session = repository.findById(ID);
+        session.removeAttribute("SPRING_SECURITY_CONTEXT");
+        session.setAttribute("theme", "dark");
+        repository.save(session);
+
+        verify(hash).putAll(KEY, Map.of("sessionAttr:theme", "dark",
+                "lastAccessedTime", session.getLastAccessedTime().toEpochMilli()));
+        verify(hash).delete(KEY, "sessionAttr:SPRING_SECURITY_CONTEXT");
+        verify(redis).convertAndSend(NearCacheSessionRepository.EVICTION_CHANNEL, ID);
+        repository.findById(ID);
+        verify(hash, times(2)).entries(KEY);
+    }
+
+    @Test
+    void logoutIsSeenRightAway() {
+        repository.findById(ID);
+        when(hash.entries(KEY)).thenReturn(Map.of());
+
+        repository.deleteById(ID);
+
+        verify(redis).delete(KEY);
+        verify(redis).convertAndSend(NearCacheSessionRepository.EVICTION_CHANNEL, ID);
+        assertThat(repository.findById(ID)).isNull();
+    }
+
+    @Test
+    void dropsSessionsAnotherNodeChanged() {
+        repository.findById(ID);
+
+        repository.onMessage(new DefaultMessage(NearCacheSessionRepository.EVICTION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ID.getBytes(StandardCharsets.UTF_8)), null);
+
+        repository.findById(ID);
+        verify(hash, times(2)).entries(KEY);
+    }
+
+    @Test
+    void writesNewSessionsWhole() {
+        NearCacheSessionRepository.NearCacheSession session = repository.createSession();
+        session.setAttribute("SPRING_SECURITY_CONTEXT", "context");
+        repository.save(session);
+
+        verify(hash).putAll("spring:session:sessions:" + session.getId(), Map.of(
+                "creationTime", session.getCreationTime().toEpochMilli(),
+                "lastAccessedTime", session.getLastAccessedTime().toEpochMilli(),
+                "maxInactiveInterval", 1800,
+                "sessionAttr:SPRING_SECURITY_CONTEXT", "context"));
+        assertThat(repository.findById(session.getId()).<String>getAttribute("SPRING_SECURITY_CONTEXT"))
+                .isEqualTo("context");
+    }
+}
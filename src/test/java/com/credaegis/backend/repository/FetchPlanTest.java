@@ -0,0 +1,593 @@
+package com.credaegis.backend.repository;
+
+import com.credaegis.backend.MySqlJpaTest;
+import com.credaegis.backend.configuration.security.service.PrincipalCache;
+import com.credaegis.backend.constant.Constants;
+import com.credaegis.backend.dto.ClusterSummaryDTO;
+import com.credaegis.backend.dto.projection.ApprovalInfoProjection;
+import com.credaegis.backend.dto.projection.ClusterDetailProjection;
+import com.credaegis.backend.entity.Approval;
+import com.credaegis.backend.entity.Certificate;
+import com.credaegis.backend.entity.Event;
+import com.credaegis.backend.entity.Status;
+import com.credaegis.backend.http.request.ApprovalModificationRequest;
+import com.credaegis.backend.http.request.ClusterCreationRequest;
+import com.credaegis.backend.http.request.EventCreationRequest;
+import com.credaegis.backend.http.request.EventModificationRequest;
+import com.credaegis.backend.http.request.MemberCreationRequest;
+import com.credaegis.backend.http.response.custom.CertificateVerificationResponse;
+import com.credaegis.backend.service.ApprovalService;
+import com.credaegis.backend.service.ClusterService;
+import com.credaegis.backend.service.EventService;
+import com.credaegis.backend.service.MemberService;
+import com.credaegis.backend.service.NotificationService;
+import com.credaegis.backend.service.OwnershipResolver;
+import com.credaegis.backend.service.StatisticService;
+import com.credaegis.backend.service.VerificationService;
+import com.credaegis.backend.utility.CheckSumUtility;
+import com.credaegis.backend.utility.CursorUtility;
+import com.credaegis.backend.utility.SearchUtility;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.minio.MinioClient;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+
+//counts the statements hibernate prepares for a repository call or a service method (including serializing its
+//result and flushing its writes) from the session factory's statistics. the hot paths are pinned to an exact count,
+//every other service method is run on a small and a large organization and has to take the same count on both,
+//so nothing it does grows with the amount of data
+@EnabledIfEnvironmentVariable(named = "TEST_MYSQL_URL", matches = ".+")
+class FetchPlanTest extends MySqlJpaTest {
+
+    @Autowired
+    private ApprovalRepository approvalRepository;
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private ClusterRepository clusterRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private StatisticCounterRepository statisticCounterRepository;
+
+    @Autowired
+    private StatisticRollupRepository statisticRollupRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AdminClusterRepository adminClusterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CheckSumUtility checkSumUtility = new CheckSumUtility();
+    private ApprovalService approvalService;
+    private VerificationService verificationService;
+    private EventService eventService;
+    private MemberService memberService;
+    private ClusterService clusterService;
+
+
+    //the services are built by hand on the real repositories, only minio, rabbitmq and redis are stand-ins.
+    //the test transaction is the one they run in, so writes are flushed inside the count to be included
+    @BeforeEach
+    void setUp() {
+        SearchUtility searchUtility = new SearchUtility();
+        ReflectionTestUtils.setField(searchUtility, "ngramTokenSize", 2);
+        CursorUtility cursorUtility = new CursorUtility();
+        OwnershipResolver ownershipResolver = new OwnershipResolver(clusterRepository, eventRepository, 100);
+        PrincipalCache principalCache = new PrincipalCache(mock(StringRedisTemplate.class), 300, 100);
+        StatisticService statisticService = new StatisticService(statisticCounterRepository, statisticRollupRepository,
+                organizationRepository, clusterRepository, eventRepository, userRepository);
+        approvalService = new ApprovalService(approvalRepository, certificateRepository, eventRepository,
+                mock(MinioClient.class), clusterRepository, checkSumUtility, userRepository,
+                mock(NotificationService.class), mock(RabbitTemplate.class), cursorUtility, objectMapper,
+                statisticService, searchUtility, ownershipResolver, new TransactionTemplate(transactionManager));
+        verificationService = new VerificationService(certificateRepository, checkSumUtility);
+        eventService = new EventService(eventRepository, clusterRepository, userRepository, searchUtility,
+                ownershipResolver);
+        memberService = new MemberService(userRepository, clusterRepository, organizationRepository, roleRepository,
+                principalCache, ownershipResolver);
+        clusterService = new ClusterService(new BCryptPasswordEncoder(4), userRepository, roleRepository,
+                clusterRepository, adminClusterRepository, organizationRepository, eventRepository, searchUtility,
+                cursorUtility, principalCache, mock(AsyncTaskExecutor.class));
+    }
+
+
+    @Test
+    void clusterSummariesTakeOneStatement() throws Exception {
+        insertOrganization("small", 1, 3);
+        insertOrganization("large", 6, 3);
+        entityManager.clear();
+        List<ClusterSummaryDTO> large = new ArrayList<>();
+
+        long smallStatements = statementsOf(() -> serialized(clusterRepository.getClusterSummaries("small")));
+        long largeStatements = statementsOf(() -> large.addAll(serialized(clusterRepository.getClusterSummaries("large"))));
+
+        assertThat(smallStatements).isEqualTo(1);
+        assertThat(largeStatements).isEqualTo(1);
+        assertThat(large).hasSize(6);
+        assertThat(large).allSatisfy(cluster -> {
+            assertThat(cluster.getAdminEmail()).isNotNull();
+            assertThat(cluster.getEventCount()).isEqualTo(3L);
+            assertThat(cluster.getMemberCount()).isEqualTo(3L);
+        });
+    }
+
+    @Test
+    void clusterDetailPagesTakeOneStatementEach() {
+        insertOrganization("detail", 1, 3);
+        entityManager.clear();
+
+        long statements = statementsOf(() -> {
+            ClusterDetailProjection cluster = clusterRepository.getClusterDetail("detail-cluster-0").orElseThrow();
+            assertThat(cluster.getAdminEmail()).isEqualTo("detail-cluster-0-user-0@credaegis.com");
+            assertThat(eventRepository.getEventInfoPage("detail-cluster-0", PageRequest.of(0, 2)).hasNext()).isTrue();
+            assertThat(userRepository.getMemberInfoPage("detail-cluster-0", PageRequest.of(1, 2)).getContent()).hasSize(1);
+        });
+
+        assertThat(statements).isEqualTo(3);
+    }
+
+    //the permission check and the object path only need the ids the approval row carries
+    @Test
+    void approvalPermissionCheckTakesOneStatement() {
+        insertOrganization("approval", 1, 3);
+        insertApprovalAndCertificate("approval-cluster-0");
+        entityManager.clear();
+
+        long statements = statementsOf(() -> {
+            Approval approval = approvalRepository.findById("approval-cluster-0-approval").orElseThrow();
+            assertThat(approval.getOrganization().getId()).isEqualTo("approval");
+            assertThat(approval.getCluster().getId() + "/" + approval.getEvent().getId())
+                    .isEqualTo("approval-cluster-0/approval-cluster-0-event-0");
+        });
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    //the certificate comes with its event, cluster and organization joined in, the second statement is the
+    //cluster's admin row (the inverse one-to-one cannot be left as a proxy)
+    @Test
+    void certificateVerificationTakesTwoStatements() {
+        insertOrganization("verification", 1, 3);
+        insertApprovalAndCertificate("verification-cluster-0");
+        entityManager.clear();
+
+        long statements = statementsOf(() -> {
+            Certificate certificate = certificateRepository
+                    .findWithDetailsByCertificateHash("verification-cluster-0-hash").orElseThrow();
+            assertThat(certificate.getOrganization().getName()).isEqualTo("verification");
+            assertThat(certificate.getCluster().getName()).isEqualTo("verification-cluster-0");
+            assertThat(certificate.getEvent().getName()).isEqualTo("verification-cluster-0-event-0");
+        });
+
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void eventOwnershipCheckTakesTwoStatements() {
+        insertOrganization("event", 1, 3);
+        entityManager.clear();
+
+        long statements = statementsOf(() -> {
+            Event event = eventRepository.findWithClusterById("event-cluster-0-event-1").orElseThrow();
+            assertThat(event.getCluster().getOrganization().getId()).isEqualTo("event");
+            assertThat(event.getCluster().getDeactivated()).isFalse();
+        });
+
+        assertThat(statements).isEqualTo(2);
+    }
+
+
+    @Test
+    void modifyApprovalTakesTwoStatements() {
+        insertOrganization("modify", 1, 3);
+        insertApprovalAndCertificate("modify-cluster-0");
+        entityManager.clear();
+        ApprovalModificationRequest request = new ApprovalModificationRequest();
+        request.setApprovalId("modify-cluster-0-approval");
+        request.setRecipientName("renamed");
+        request.setRecipientEmail("renamed@credaegis.com");
+
+        long statements = statementsOf(() -> {
+            approvalService.modifyApproval(request, "modify");
+            entityManager.flush();
+        });
+
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void viewApprovalCertificateTakesOneStatement() {
+        insertOrganization("view", 1, 3);
+        insertApprovalAndCertificate("view-cluster-0");
+        entityManager.clear();
+
+        long statements = statementsOf(() ->
+                assertThat(approvalService.viewApprovalCertificate("view-cluster-0-approval", "view")
+                        .getApprovalFileName()).isEqualTo("certificate"));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    //the ownership lookup is only paid by the first request for an event
+    @Test
+    void eventApprovalsTakeOneStatementOnceOwnershipIsKnown() {
+        insertOrganization("listing", 1, 3);
+        insertApprovalAndCertificate("listing-cluster-0");
+        entityManager.clear();
+        List<ApprovalInfoProjection> approvals = new ArrayList<>();
+
+        long first = statementsOf(() -> serialized(
+                approvalService.getAllEventApprovals("listing-cluster-0-event-0", "listing")));
+        long second = statementsOf(() -> approvals.addAll(serialized(
+                approvalService.getAllEventApprovals("listing-cluster-0-event-0", "listing"))));
+
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isEqualTo(1);
+        assertThat(approvals).hasSize(1);
+    }
+
+    //event with its cluster (two, as in the ownership check), then a lookup and an insert per approval
+    //and one counter upsert for the whole upload
+    @Test
+    void uploadTakesTwoStatementsPerApproval() throws Exception {
+        insertOrganization("upload-one", 1, 3);
+        insertOrganization("upload-three", 1, 3);
+        entityManager.clear();
+
+        assertThat(countUpload("upload-one", 1)).isEqualTo(5);
+        entityManager.clear();
+        assertThat(countUpload("upload-three", 3)).isEqualTo(9);
+    }
+
+    @Test
+    void verificationTakesTwoStatementsPerCertificate() throws Exception {
+        insertOrganization("verify", 2, 3);
+        List<MockMultipartFile> files = List.of(issuedFile("verify-cluster-0"), issuedFile("verify-cluster-1"));
+        entityManager.clear();
+        List<CertificateVerificationResponse> responses = new ArrayList<>();
+
+        long statements = statementsOf(() -> responses.addAll(serialized(verify(files))));
+
+        assertThat(statements).isEqualTo(4);
+        assertThat(responses).allSatisfy(response -> assertThat(response.getIsIssued()).isTrue());
+    }
+
+
+    //the second event starts out deactivated so it can be activated
+    @Test
+    void eventChangesDoNotDependOnTheAmountOfData() {
+        insertOrganizations("event-change");
+        deactivate("events", "cluster-0-event-1", "event-change");
+
+        sameStatementsFor("event-change", organizationId -> eventService.createEvent(new EventCreationRequest(
+                "new event", "description", organizationId + "-cluster-0"), organizationId + "-cluster-0-user-0",
+                organizationId));
+        sameStatementsFor("event-change", organizationId ->
+                eventService.deactivateEvent(organizationId + "-cluster-0-event-0", organizationId));
+        sameStatementsFor("event-change", organizationId ->
+                eventService.activateEvent(organizationId + "-cluster-0-event-1", organizationId));
+        sameStatementsFor("event-change", organizationId -> eventService.updateEvent(
+                new EventModificationRequest("renamed", "description"), organizationId,
+                organizationId + "-cluster-0-event-2"));
+    }
+
+    @Test
+    void eventSearchesDoNotDependOnTheAmountOfData() {
+        insertOrganizations("event-search");
+
+        sameStatementsFor("event-search", organizationId -> serialized(eventService.searchByName("event", organizationId)));
+        sameStatementsFor("event-search", organizationId -> serialized(eventService.searchByNameAndClusterId("event",
+                organizationId + "-cluster-0", organizationId)));
+        sameStatementsFor("event-search", organizationId -> serialized(eventService.autocompleteEvent("ev", null,
+                organizationId)));
+    }
+
+    //the third member starts out deactivated so it can be activated, and is deleted last
+    @Test
+    void memberChangesDoNotDependOnTheAmountOfData() {
+        insertOrganizations("member");
+        deactivate("users", "cluster-0-user-2", "member");
+
+        sameStatementsFor("member", organizationId -> {
+            MemberCreationRequest request = new MemberCreationRequest();
+            request.setUsername("new member");
+            request.setEmail(organizationId + "-new@credaegis.com");
+            request.setClusterId(organizationId + "-cluster-0");
+            memberService.createMember(request, organizationId);
+        });
+        sameStatementsFor("member", organizationId -> memberService.deactivateMember(
+                organizationId + "-cluster-0-user-1", organizationId + "-cluster-0-user-0", organizationId));
+        sameStatementsFor("member", organizationId -> memberService.activateMember(
+                organizationId + "-cluster-0-user-2", organizationId + "-cluster-0-user-0", organizationId));
+        sameStatementsFor("member", organizationId ->
+                memberService.renameUser(organizationId + "-cluster-0-user-1", "renamed", organizationId));
+        sameStatementsFor("member", organizationId -> memberService.deleteMember(
+                organizationId + "-cluster-0-user-2", organizationId + "-cluster-0-user-0", organizationId));
+    }
+
+    //each change is flushed before the next one reads the cluster again, so lock sees the new admin
+    //and activate sees the cluster deactivated
+    @Test
+    void clusterChangesDoNotDependOnTheAmountOfData() {
+        insertOrganizations("cluster");
+
+        sameStatementsFor("cluster", organizationId -> clusterService.createCluster(new ClusterCreationRequest(
+                "new cluster", "admin", organizationId + "-admin@credaegis.com"), organizationId));
+        sameStatementsFor("cluster", organizationId ->
+                clusterService.renameCluster(organizationId + "-cluster-0", organizationId, "renamed"));
+        sameStatementsFor("cluster", organizationId -> clusterService.changeAdmin(organizationId + "-cluster-0",
+                organizationId + "-cluster-0-user-1", organizationId));
+        sameStatementsFor("cluster", organizationId ->
+                clusterService.lockPermissions(organizationId + "-cluster-0", organizationId));
+        sameStatementsFor("cluster", organizationId ->
+                clusterService.unlockPermissions(organizationId + "-cluster-0", organizationId));
+        sameStatementsFor("cluster", organizationId ->
+                clusterService.deactivateCluster(organizationId + "-cluster-0", organizationId));
+        sameStatementsFor("cluster", organizationId ->
+                clusterService.activateCluster(organizationId + "-cluster-0", organizationId));
+    }
+
+    @Test
+    void clusterListingsDoNotDependOnTheAmountOfData() {
+        insertOrganizations("cluster-listing");
+
+        sameStatementsFor("cluster-listing", organizationId -> serialized(clusterService.getAllNameAndId(organizationId)));
+        sameStatementsFor("cluster-listing", organizationId -> serialized(clusterService.getAllClusters(organizationId)));
+        sameStatementsFor("cluster-listing", organizationId ->
+                serialized(clusterService.searchCluster(organizationId, "cluster")));
+        sameStatementsFor("cluster-listing", organizationId ->
+                serialized(clusterService.autocompleteCluster(organizationId, "cl")));
+    }
+
+    @Test
+    void approvalListingsDoNotDependOnTheAmountOfData() {
+        insertOrganizations("approval-listing");
+
+        sameStatementsFor("approval-listing", organizationId -> serialized(approvalService.getAllApprovals(organizationId)));
+        sameStatementsFor("approval-listing", organizationId ->
+                serialized(approvalService.getCount(organizationId, Status.pending)));
+        sameStatementsFor("approval-listing", organizationId ->
+                serialized(approvalService.getAllClusterApprovals(organizationId + "-cluster-0", organizationId)));
+        sameStatementsFor("approval-listing", organizationId ->
+                serialized(approvalService.getApprovalsAfter(null, 20, organizationId)));
+        sameStatementsFor("approval-listing", organizationId -> serialized(approvalService.getClusterApprovalsAfter(
+                organizationId + "-cluster-0", null, 20, organizationId)));
+        sameStatementsFor("approval-listing", organizationId -> serialized(approvalService.getEventApprovalsAfter(
+                organizationId + "-cluster-0-event-0", null, 20, organizationId)));
+        sameStatementsFor("approval-listing", organizationId -> serialized(approvalService.searchByRecipient(
+                "recipient@credaegis.com", null, 0, 20, organizationId)));
+        sameStatementsFor("approval-listing", organizationId -> serialized(approvalService.searchByRecipient(
+                null, "recipient", 0, 20, organizationId)));
+    }
+
+    @Test
+    void approvalStreamsDoNotDependOnTheAmountOfData() {
+        insertOrganizations("approval-stream");
+
+        sameStatementsFor("approval-stream", organizationId ->
+                drain(() -> approvalService.streamAllApprovals(organizationId)));
+        sameStatementsFor("approval-stream", organizationId ->
+                drain(() -> approvalService.streamClusterApprovals(organizationId + "-cluster-0", organizationId)));
+        sameStatementsFor("approval-stream", organizationId -> drain(() ->
+                approvalService.streamEventApprovals(organizationId + "-cluster-0-event-0", organizationId)));
+    }
+
+    @Test
+    void rejectingApprovalsDoesNotDependOnTheAmountOfData() {
+        insertOrganizations("reject");
+
+        sameStatementsFor("reject", organizationId -> approvalService.rejectCertificates(organizationId,
+                jdbcTemplate.queryForList("SELECT id FROM approvals WHERE organization_id = ?", String.class,
+                        organizationId)));
+    }
+
+
+    //statements prepared by hibernate while the block runs, read from the session factory's statistics
+    private long statementsOf(Runnable block) {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        block.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    //runs the call on the small and the large organization of the prefix, each from an empty persistence context
+    //and with its writes flushed, and fails unless both take the same number of statements
+    private void sameStatementsFor(String prefix, Consumer<String> call) {
+        long small = countFlushed(() -> call.accept(prefix + "-small"));
+        long large = countFlushed(() -> call.accept(prefix + "-large"));
+        assertThat(small).isPositive();
+        assertThat(large).as("statements on the large organization").isEqualTo(small);
+    }
+
+    private long countFlushed(Runnable block) {
+        entityManager.clear();
+        long statements = statementsOf(() -> {
+            block.run();
+            entityManager.flush();
+        });
+        entityManager.clear();
+        return statements;
+    }
+
+    private long countUpload(String organizationId, int files) throws Exception {
+        String eventId = organizationId + "-cluster-0-event-0";
+        List<MultipartFile> certificates = new ArrayList<>();
+        List<Map<String, String>> info = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            certificates.add(new MockMultipartFile("approvals", "approval-" + i + ".pdf", "application/pdf",
+                    ("approval " + i).getBytes()));
+            info.add(Map.of("fileName", "approval-" + i + ".pdf", "recipientName", "recipient",
+                    "recipientEmail", "recipient@credaegis.com"));
+        }
+        String approvalsInfo = objectMapper.writeValueAsString(info);
+
+        long statements = statementsOf(() -> {
+            try {
+                approvalService.uploadApprovals(eventId, organizationId + "-cluster-0-user-0", organizationId,
+                        certificates, approvalsInfo);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            entityManager.flush();
+        });
+        assertThat(approvalRepository.countByOrganization_IdAndStatus(organizationId, Status.pending)).isEqualTo(files);
+        return statements;
+    }
+
+    private List<CertificateVerificationResponse> verify(List<MockMultipartFile> files) {
+        try {
+            return verificationService.verifyAuthenticity(List.copyOf(files));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void drain(Supplier<StreamingResponseBody> stream) {
+        try {
+            stream.get().writeTo(new ByteArrayOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //a file whose hash is the one stored for the cluster's certificate
+    private MockMultipartFile issuedFile(String clusterId) {
+        insertApprovalAndCertificate(clusterId);
+        byte[] content = (clusterId + " certificate").getBytes();
+        jdbcTemplate.update("UPDATE certificates SET certificate_hash = ? WHERE id = ?",
+                checkSumUtility.hashCertificate(content), clusterId + "-certificate");
+        return new MockMultipartFile("certificates", clusterId + ".pdf", "application/pdf", content);
+    }
+
+    private <T> T serialized(T result) {
+        try {
+            objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return result;
+    }
+
+    //a small organization (one cluster of three members, one approval) and a large one (six clusters of eight
+    //members, five approvals on the first event) with roles, so every service method can run on both
+    private void insertOrganizations(String prefix) {
+        insertOrganization(prefix + "-small", 1, 3);
+        insertRoles(prefix + "-small");
+        insertApprovals(prefix + "-small-cluster-0", 1);
+        insertOrganization(prefix + "-large", 6, 8);
+        insertRoles(prefix + "-large");
+        insertApprovals(prefix + "-large-cluster-0", 5);
+    }
+
+    //the row of the small and of the large organization of the prefix
+    private void deactivate(String table, String idSuffix, String prefix) {
+        jdbcTemplate.update("UPDATE " + table + " SET deactivated = true WHERE id IN (?, ?)",
+                prefix + "-small-" + idSuffix, prefix + "-large-" + idSuffix);
+    }
+
+    //each cluster gets an admin, the other members and three events
+    private void insertOrganization(String organizationId, int clusters, int members) {
+        jdbcTemplate.update("INSERT INTO organizations (id, name, address, pincode) VALUES (?, ?, 'address', '000000')",
+                organizationId, organizationId);
+        for (int c = 0; c < clusters; c++) {
+            String clusterId = organizationId + "-cluster-" + c;
+            jdbcTemplate.update("INSERT INTO clusters (id, name, deactivated, locked, organization_id) VALUES (?, ?, false, false, ?)",
+                    clusterId, clusterId, organizationId);
+            for (int u = 0; u < members; u++) {
+                String userId = clusterId + "-user-" + u;
+                jdbcTemplate.update("INSERT INTO users (id, username, password, email, mfa_enabled, brand_logo_enabled, " +
+                                "deactivated, deleted, organization_id, cluster_id) VALUES (?, ?, 'password', ?, false, false, false, false, ?, ?)",
+                        userId, userId, userId + "@credaegis.com", organizationId, clusterId);
+            }
+            for (int e = 0; e < 3; e++)
+                jdbcTemplate.update("INSERT INTO events (id, name, deactivated, description, created_by, cluster_id) " +
+                                "VALUES (?, ?, false, 'description', ?, ?)",
+                        clusterId + "-event-" + e, clusterId + "-event-" + e, clusterId + "-user-" + e, clusterId);
+            jdbcTemplate.update("INSERT INTO admins (id, admin_id, cluster_id) VALUES (?, ?, ?)",
+                    clusterId + "-admin", clusterId + "-user-0", clusterId);
+        }
+    }
+
+    //the admin of each cluster is its first user, everyone else is a member
+    private void insertRoles(String organizationId) {
+        jdbcTemplate.update("INSERT INTO roles (id, `role`, user_id) SELECT CONCAT(u.id, '-role'), " +
+                "IF(a.id IS NULL, 'ROLE_" + Constants.MEMBER + "', 'ROLE_" + Constants.CLUSTER_ADMIN + "'), u.id " +
+                "FROM users u LEFT JOIN admins a ON a.admin_id = u.id WHERE u.organization_id = ?", organizationId);
+    }
+
+    //one pending approval and one issued certificate on the cluster's first event
+    private void insertApprovalAndCertificate(String clusterId) {
+        String organizationId = clusterId.substring(0, clusterId.indexOf("-cluster-"));
+        insertApproval(clusterId, clusterId + "-approval", organizationId);
+        jdbcTemplate.update("INSERT INTO certificates (id, certificate_name, certificate_hash, recipient_name, " +
+                        "recipient_email, issued_date, revoked, user_id, event_id, cluster_id, organization_id) VALUES " +
+                        "(?, 'certificate', ?, 'recipient', 'recipient@credaegis.com', CURRENT_DATE, false, ?, ?, ?, ?)",
+                clusterId + "-certificate", clusterId + "-hash", clusterId + "-user-0", clusterId + "-event-0",
+                clusterId, organizationId);
+    }
+
+    private void insertApprovals(String clusterId, int count) {
+        String organizationId = clusterId.substring(0, clusterId.indexOf("-cluster-"));
+        for (int i = 0; i < count; i++)
+            insertApproval(clusterId, clusterId + "-approval-" + i, organizationId);
+    }
+
+    private void insertApproval(String clusterId, String approvalId, String organizationId) {
+        jdbcTemplate.update("INSERT INTO approvals (id, approval_certificate_name, recipient_name, recipient_email, " +
+                        "approval_status, event_id, cluster_id, organization_id) VALUES (?, 'certificate', 'recipient', " +
+                        "'recipient@credaegis.com', 'pending', ?, ?, ?)",
+                approvalId, clusterId + "-event-0", clusterId, organizationId);
+    }
+}
@@ -0,0 +1,338 @@
+package com.credaegis.backend.repository;
+
+import com.credaegis.backend.MySqlJpaTest;
+import com.credaegis.backend.RecordingStatementInspector;
+import com.credaegis.backend.entity.Cluster;
+import com.credaegis.backend.entity.Event;
+import com.credaegis.backend.entity.Organization;
+import com.credaegis.backend.entity.Status;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+//runs EXPLAIN on the sql hibernate generates for each repository query and fails when mysql would read a whole
+//table or a whole index. on empty tables a scan costs nothing and the optimizer picks it even when an index fits,
+//so the schema is first filled with a few thousand rows spread over many organizations and analyzed
+@EnabledIfEnvironmentVariable(named = "TEST_MYSQL_URL", matches = ".+")
+class QueryPlanTest extends MySqlJpaTest {
+
+    private static final Pattern LIMIT_PARAMETERS = Pattern.compile("(?i)\\blimit\\s+\\?(\\s*,\\s*\\?)?");
+    private static final Pattern OFFSET_PARAMETER = Pattern.compile("(?i)\\boffset\\s+\\?");
+    private static final String SEED_PREFIX = "plan-";
+    private static final int SEED_ORGANIZATIONS = 10;
+    private static final int SEED_CLUSTERS = 10;
+    private static final int SEED_PER_CLUSTER = 3;
+    private static final int SEED_PER_EVENT = 10;
+
+    private static boolean seeded;
+
+    @Autowired
+    private ApprovalRepository approvalRepository;
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private ClusterRepository clusterRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AdminClusterRepository adminClusterRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private StatisticCounterRepository statisticCounterRepository;
+
+    @Autowired
+    private StatisticRollupRepository statisticRollupRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+
+    @BeforeEach
+    void seed() throws SQLException {
+        if (seeded)
+            return;
+        //committed on a connection of its own: the test transaction is rolled back, and ANALYZE TABLE would
+        //commit it halfway. the rows are written once for the class and deleted after its last test
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            JdbcTemplate seedTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Integer existing = seedTemplate.queryForObject("SELECT COUNT(*) FROM organizations WHERE id = ?",
+                    Integer.class, SEED_PREFIX + "0");
+            if (existing == null || existing == 0)
+                insertSeedRows(seedTemplate);
+            seedTemplate.execute("ANALYZE TABLE organizations, clusters, users, admins, events, approvals, " +
+                    "certificates, notifications, statistic_counters, statistic_rollups");
+        }
+        seeded = true;
+    }
+
+    //runs outside any test transaction, so each delete commits on its own. children go before their parents
+    @AfterAll
+    static void deleteSeedRows(@Autowired JdbcTemplate jdbcTemplate) {
+        String prefix = SEED_PREFIX + "%";
+        jdbcTemplate.update("DELETE FROM statistic_rollups WHERE scope_id LIKE ?", prefix);
+        jdbcTemplate.update("DELETE FROM statistic_counters WHERE id LIKE ?", prefix);
+        jdbcTemplate.update("DELETE FROM notifications WHERE user_id LIKE ?", prefix);
+        jdbcTemplate.update("DELETE FROM certificates WHERE organization_id LIKE ?", prefix);
+        jdbcTemplate.update("DELETE FROM approvals WHERE organization_id LIKE ?", prefix);
+        jdbcTemplate.update("DELETE FROM events WHERE cluster_id LIKE ?", prefix);
+        jdbcTemplate.update("DELETE FROM admins WHERE cluster_id LIKE ?", prefix);
+        jdbcTemplate.update("DELETE FROM users WHERE organization_id LIKE ?", prefix);
+        jdbcTemplate.update("DELETE FROM clusters WHERE organization_id LIKE ?", prefix);
+        jdbcTemplate.update("DELETE FROM organizations WHERE id LIKE ?", prefix);
+        seeded = false;
+    }
+
+
+    @Test
+    void approvalQueriesUseIndexes() {
+        Cluster cluster = entityManager.getReference(Cluster.class, "cluster");
+        Event event = entityManager.getReference(Event.class, "event");
+
+        assertNoFullScans(RecordingStatementInspector.record(() -> {
+            approvalRepository.getApprovalInfo(Status.pending, "organization");
+            approvalRepository.getApprovalInfoByClusterAndStatus(cluster, Status.pending);
+            approvalRepository.getApprovalInfoByEventAndStatus(event, Status.pending);
+            approvalRepository.countByOrganization_IdAndStatus("organization", Status.pending);
+            approvalRepository.rejectCertificates("organization", List.of("approval"));
+            approvalRepository.getApprovalInfoAfter(Status.pending, "organization", "approval", PageRequest.of(0, 20));
+            approvalRepository.getApprovalInfoByClusterAndStatusAfter(cluster, Status.pending, "approval", PageRequest.of(0, 20));
+            approvalRepository.getApprovalInfoByEventAndStatusAfter(event, Status.pending, "approval", PageRequest.of(0, 20));
+            approvalRepository.searchByRecipientEmail("recipient@credaegis.com", "organization", PageRequest.of(0, 20));
+            approvalRepository.searchByRecipientNamePrefix("na%", "organization", PageRequest.of(0, 20));
+            approvalRepository.searchByRecipientName("\"name\"", "organization", PageRequest.of(0, 20));
+        }));
+    }
+
+    @Test
+    void certificateQueriesUseIndexes() {
+        PageRequest page = PageRequest.of(2, 20, Sort.by(Sort.Order.desc("issuedDate")));
+        Date issuedDate = Date.valueOf("2024-01-01");
+
+        assertNoFullScans(RecordingStatementInspector.record(() -> {
+            certificateRepository.existsByCertificateHash("hash");
+            certificateRepository.findWithDetailsByCertificateHash("hash");
+            certificateRepository.getLatestCertificateInfo(page, "organization");
+            certificateRepository.getLatestCertificateInfoByCluster(page, "cluster", "organization");
+            certificateRepository.getLatestCertificateInfoByEvent(page, "event", "organization");
+            certificateRepository.countByOrganization_Id("organization");
+            certificateRepository.revokeCertificates(List.of("certificate"), "organization", Date.valueOf("2024-01-01"));
+            certificateRepository.getCertificateInfoAfter("organization", issuedDate, "certificate", PageRequest.of(0, 20));
+            certificateRepository.getCertificateInfoByClusterAfter("cluster", "organization", issuedDate, "certificate", PageRequest.of(0, 20));
+            certificateRepository.getCertificateInfoByEventAfter("event", "organization", issuedDate, "certificate", PageRequest.of(0, 20));
+            certificateRepository.searchByName("\"name\"", "organization", 20);
+            certificateRepository.searchByNamePrefix("na%", "organization", PageRequest.of(0, 20));
+            certificateRepository.autocompleteCertificateName("na%", "organization", PageRequest.of(0, 10));
+            certificateRepository.searchByRecipientEmail("recipient@credaegis.com", "organization", PageRequest.of(0, 20));
+            certificateRepository.searchByRecipientNamePrefix("na%", "organization", PageRequest.of(0, 20));
+            certificateRepository.searchByRecipientName("\"name\"", "organization", PageRequest.of(0, 20));
+        }));
+    }
+
+    @Test
+    void clusterAndEventQueriesUseIndexes() {
+        Cluster cluster = entityManager.getReference(Cluster.class, "cluster");
+        Organization organization = entityManager.getReference(Organization.class, "organization");
+
+        assertNoFullScans(RecordingStatementInspector.record(() -> {
+            clusterRepository.findByNameAndOrganization("name", organization);
+            clusterRepository.findByOrganization(organization);
+            clusterRepository.getAllNameAndId("organization");
+            clusterRepository.getClusterSummaries("organization");
+            clusterRepository.getClusterDetail("cluster");
+            clusterRepository.findOrganizationIdById("cluster");
+            eventRepository.findOrganizationIdById("event");
+            eventRepository.findWithClusterById("event");
+            eventRepository.getEventInfoPage("cluster", PageRequest.of(0, 50));
+            clusterRepository.searchByName("\"name\"", "organization", 20);
+            clusterRepository.searchByNamePrefix("na%", "organization", PageRequest.of(0, 10));
+            clusterRepository.getClusterInfo(cluster);
+            clusterRepository.findByIdAndOrganization("cluster", organization);
+            eventRepository.searchByName("\"name\"", null, "organization", 20);
+            eventRepository.searchByNamePrefix("na%", "cluster", "organization", PageRequest.of(0, 10));
+            eventRepository.getEventInfo(cluster);
+            eventRepository.existsByNameAndCluster("name", cluster);
+        }));
+    }
+
+    @Test
+    void memberQueriesUseIndexes() {
+        Cluster cluster = entityManager.getReference(Cluster.class, "cluster");
+
+        assertNoFullScans(RecordingStatementInspector.record(() -> {
+            userRepository.findByEmail("user@credaegis.com");
+            userRepository.findWithOrganizationById("user");
+            userRepository.findWithClusterById("user");
+            userRepository.getMemberInfo(cluster);
+            userRepository.getMemberInfoPage("cluster", PageRequest.of(0, 50));
+            userRepository.findAllUserIdByClusterId("cluster");
+            adminClusterRepository.getAdminClusterInfo(cluster);
+            notificationRepository.findByUser_Id("user");
+            notificationRepository.getNotificationsAfter("user", Timestamp.valueOf("2024-01-01 00:00:00"),
+                    "notification", PageRequest.of(0, 20));
+        }));
+    }
+
+    @Test
+    void statisticCounterQueriesUseIndexes() {
+        assertNoFullScans(RecordingStatementInspector.record(() -> {
+            statisticCounterRepository.increment("organization", "cluster", "event", 1, 0, 0, 0, -1);
+            statisticCounterRepository.getClusterStatistics("organization");
+            statisticCounterRepository.getEventStatistics("cluster", "organization");
+            statisticCounterRepository.deleteByOrganizationId("organization");
+            statisticCounterRepository.rebuildEventCounters("organization");
+            statisticCounterRepository.rebuildClusterCounters("organization");
+            statisticCounterRepository.rebuildOrganizationCounter("organization");
+        }));
+    }
+
+    @Test
+    void statisticRollupQueriesUseIndexes() {
+        Date from = Date.valueOf("2024-01-01");
+        Date to = Date.valueOf("2024-03-31");
+
+        assertNoFullScans(RecordingStatementInspector.record(() -> {
+            statisticRollupRepository.increment("organization", "cluster", "event", from, 1, 0);
+            statisticRollupRepository.getDailyTrend("cluster", "organization", from, to);
+            statisticRollupRepository.getWeeklyTrend("cluster", "organization", from, to);
+            statisticRollupRepository.deleteByOrganizationId("organization");
+            statisticRollupRepository.rebuildIssuedEventRollups("organization");
+            statisticRollupRepository.rebuildRevokedEventRollups("organization");
+            statisticRollupRepository.rebuildClusterRollups("organization");
+            statisticRollupRepository.rebuildOrganizationRollups("organization");
+        }));
+    }
+
+
+    //the row of an insert's target table and mysql's own derived and temporary tables (<derived2>, <subquery3>)
+    //always show a scan type, every other table has to be reached through an index
+    private void assertNoFullScans(List<String> statements) {
+        assertThat(statements).isNotEmpty();
+        List<String> fullScans = new ArrayList<>();
+        for (String statement : statements) {
+            for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + withLiterals(statement))) {
+                String type = String.valueOf(row.get("type"));
+                String table = String.valueOf(row.get("table"));
+                boolean insertTarget = "INSERT".equals(row.get("select_type")) || "REPLACE".equals(row.get("select_type"));
+                if (insertTarget || table.startsWith("<"))
+                    continue;
+                if (type.equals("ALL") || type.equals("index"))
+                    fullScans.add("table " + table + " (" + type + ", possible keys " + row.get("possible_keys") +
+                            ") in: " + statement);
+            }
+        }
+        assertThat(fullScans).as("statements reading a whole table or index").isEmpty();
+    }
+
+    //every organization gets clusters with members, an admin and events, every event approvals, certificates
+    //and daily rollups, every member notifications. counters exist for each organization, cluster and event
+    private void insertSeedRows(JdbcTemplate seedTemplate) {
+        List<Object[]> organizations = new ArrayList<>();
+        List<Object[]> clusters = new ArrayList<>();
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> admins = new ArrayList<>();
+        List<Object[]> events = new ArrayList<>();
+        List<Object[]> approvals = new ArrayList<>();
+        List<Object[]> certificates = new ArrayList<>();
+        List<Object[]> notifications = new ArrayList<>();
+        List<Object[]> counters = new ArrayList<>();
+        List<Object[]> rollups = new ArrayList<>();
+        String[] statuses = {"pending", "approved", "rejected", "buffered"};
+
+        for (int o = 0; o < SEED_ORGANIZATIONS; o++) {
+            String organizationId = SEED_PREFIX + o;
+            organizations.add(new Object[]{organizationId, organizationId});
+            counters.add(new Object[]{organizationId, "organization", organizationId, null});
+            for (int c = 0; c < SEED_CLUSTERS; c++) {
+                String clusterId = organizationId + "-cluster-" + c;
+                clusters.add(new Object[]{clusterId, "cluster " + c, organizationId});
+                counters.add(new Object[]{clusterId, "cluster", organizationId, clusterId});
+                for (int u = 0; u < SEED_PER_CLUSTER; u++) {
+                    String userId = clusterId + "-user-" + u;
+                    String eventId = clusterId + "-event-" + u;
+                    users.add(new Object[]{userId, "member " + u, userId + "@credaegis.com", organizationId, clusterId});
+                    events.add(new Object[]{eventId, "event " + u, userId, clusterId});
+                    counters.add(new Object[]{eventId, "event", organizationId, clusterId});
+                    for (int n = 0; n < SEED_PER_EVENT; n++) {
+                        String rowId = eventId + "-" + n;
+                        Date day = Date.valueOf(LocalDate.of(2024, 1, 1).plusDays(n));
+                        approvals.add(new Object[]{rowId, "approval " + n, "recipient " + n, "recipient" + n + "@credaegis.com",
+                                statuses[n % statuses.length], eventId, clusterId, organizationId});
+                        certificates.add(new Object[]{rowId, "certificate " + n, rowId + "-hash", "recipient " + n,
+                                "recipient" + n + "@credaegis.com", day, userId, eventId, clusterId, organizationId});
+                        rollups.add(new Object[]{eventId, day, "event", organizationId, clusterId});
+                        notifications.add(new Object[]{rowId, "notification " + n,
+                                Timestamp.valueOf(day.toLocalDate().atStartOfDay()), userId});
+                    }
+                }
+                admins.add(new Object[]{clusterId + "-admin", clusterId + "-user-0", clusterId});
+            }
+        }
+
+        seedTemplate.batchUpdate("INSERT INTO organizations (id, name, address, pincode) VALUES (?, ?, 'address', '000000')",
+                organizations);
+        seedTemplate.batchUpdate("INSERT INTO clusters (id, name, deactivated, locked, organization_id) " +
+                "VALUES (?, ?, false, false, ?)", clusters);
+        seedTemplate.batchUpdate("INSERT INTO users (id, username, password, email, mfa_enabled, brand_logo_enabled, " +
+                "deactivated, deleted, organization_id, cluster_id) VALUES (?, ?, 'password', ?, false, false, false, false, ?, ?)",
+                users);
+        seedTemplate.batchUpdate("INSERT INTO admins (id, admin_id, cluster_id) VALUES (?, ?, ?)", admins);
+        seedTemplate.batchUpdate("INSERT INTO events (id, name, deactivated, description, created_by, cluster_id) " +
+                "VALUES (?, ?, false, 'description', ?, ?)", events);
+        seedTemplate.batchUpdate("INSERT INTO approvals (id, approval_certificate_name, recipient_name, recipient_email, " +
+                "approval_status, event_id, cluster_id, organization_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", approvals);
+        seedTemplate.batchUpdate("INSERT INTO certificates (id, certificate_name, certificate_hash, recipient_name, " +
+                "recipient_email, issued_date, revoked, user_id, event_id, cluster_id, organization_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, false, ?, ?, ?, ?)", certificates);
+        seedTemplate.batchUpdate("INSERT INTO notifications (id, message, type, timestamp, user_id) " +
+                "VALUES (?, ?, 'INFO', ?, ?)", notifications);
+        seedTemplate.batchUpdate("INSERT INTO statistic_counters (id, scope, organization_id, cluster_id) " +
+                "VALUES (?, ?, ?, ?)", counters);
+        seedTemplate.batchUpdate("INSERT INTO statistic_rollups (scope_id, bucket_date, scope, organization_id, " +
+                "cluster_id, issued_count) VALUES (?, ?, ?, ?, ?, 1)", rollups);
+    }
+
+    //EXPLAIN cannot take bind parameters, so they are replaced with literals of a harmless type
+    private String withLiterals(String sql) {
+        String withLimits = LIMIT_PARAMETERS.matcher(sql).replaceAll(result ->
+                result.group(1) == null ? "limit 1" : "limit 1,1");
+        return OFFSET_PARAMETER.matcher(withLimits).replaceAll("offset 1").replace("?", "'0'");
+    }
+}
@@ -0,0 +1,98 @@
+package com.credaegis.backend.repository;
+
+import com.credaegis.backend.MySqlJpaTest;
+import com.credaegis.backend.RecordingStatementInspector;
+import com.credaegis.backend.configuration.cache.SecondLevelCacheConfig;
+import com.credaegis.backend.entity.Cluster;
+import com.credaegis.backend.entity.Event;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+//every repository call runs in its own transaction here, the cache only serves sessions started after the
+//entry was put, so the rows are committed up front and removed again afterwards
+@EnabledIfEnvironmentVariable(named = "TEST_MYSQL_URL", matches = ".+")
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest extends MySqlJpaTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ClusterRepository clusterRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+
+    @BeforeEach
+    void insertEvent() {
+        jdbcTemplate.update("INSERT INTO organizations (id, name, address, pincode) VALUES ('cache', 'cache', 'address', '000000')");
+        jdbcTemplate.update("INSERT INTO clusters (id, name, deactivated, locked, organization_id) VALUES ('cache-cluster', 'cache-cluster', false, false, 'cache')");
+        jdbcTemplate.update("INSERT INTO users (id, username, password, email, mfa_enabled, brand_logo_enabled, deactivated, deleted, " +
+                "organization_id, cluster_id) VALUES ('cache-user', 'cache-user', 'password', 'cache-user@credaegis.com', false, false, false, false, 'cache', 'cache-cluster')");
+        jdbcTemplate.update("INSERT INTO events (id, name, deactivated, description, created_by, cluster_id) " +
+                "VALUES ('cache-event', 'cache-event', false, 'description', 'cache-user', 'cache-cluster')");
+    }
+
+    @AfterEach
+    void deleteEvent() {
+        jdbcTemplate.update("DELETE FROM events WHERE id = 'cache-event'");
+        jdbcTemplate.update("DELETE FROM users WHERE id = 'cache-user'");
+        jdbcTemplate.update("DELETE FROM clusters WHERE id = 'cache-cluster'");
+        jdbcTemplate.update("DELETE FROM organizations WHERE id = 'cache'");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+
+    @Test
+    void eventIsServedFromTheCacheUntilABulkUpdate() {
+        assertThat(RecordingStatementInspector.record(() -> eventRepository.findById("cache-event"))).hasSize(1);
+        assertThat(RecordingStatementInspector.record(() -> eventRepository.findById("cache-event"))).isEmpty();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                eventRepository.renameEvent("renamed", "cache-event"));
+
+        RecordingStatementInspector.Recording<Event> reloaded = RecordingStatementInspector.recordResult(() ->
+                eventRepository.findById("cache-event").orElseThrow());
+        assertThat(reloaded.statements()).hasSize(1);
+        assertThat(reloaded.result().getName()).isEqualTo("renamed");
+    }
+
+    @Test
+    void nameLookupIsCachedUntilTheNextWriteToEvents() {
+        Cluster cluster = clusterRepository.getReferenceById("cache-cluster");
+
+        assertThat(RecordingStatementInspector.record(() -> eventRepository.existsByNameAndCluster("cache-event", cluster)))
+                .hasSize(1);
+        assertThat(RecordingStatementInspector.record(() -> eventRepository.existsByNameAndCluster("cache-event", cluster)))
+                .isEmpty();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                eventRepository.renameEvent("renamed", "cache-event"));
+
+        RecordingStatementInspector.Recording<Boolean> afterRename = RecordingStatementInspector.recordResult(() ->
+                eventRepository.existsByNameAndCluster("cache-event", cluster));
+        assertThat(afterRename.statements()).hasSize(1);
+        assertThat(afterRename.result()).isFalse();
+    }
+}
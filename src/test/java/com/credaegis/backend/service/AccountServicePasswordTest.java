@@ -0,0 +1,71 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.configuration.security.service.PrincipalCache;
+import com.credaegis.backend.exception.custom.CustomException;
+import com.credaegis.backend.http.request.PasswordChangeRequest;
+import com.credaegis.backend.repository.NotificationRepository;
+import com.credaegis.backend.repository.UserRepository;
+import com.credaegis.backend.utility.ImageUtility;
+import com.credaegis.backend.utility.PasswordUtility;
+import dev.samstevens.totp.code.CodeVerifier;
+import dev.samstevens.totp.qr.QrGenerator;
+import dev.samstevens.totp.secret.SecretGenerator;
+import io.minio.MinioClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+class AccountServicePasswordTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+    private final AccountService accountService = new AccountService(userRepository,
+            new PasswordUtility(passwordEncoder), passwordEncoder, mock(SecretGenerator.class),
+            mock(QrGenerator.class), mock(CodeVerifier.class), mock(NotificationRepository.class),
+            mock(MinioClient.class), principalCache, mock(BrandLogoCache.class), mock(ImageUtility.class));
+
+
+    @Test
+    void checksTheOldPasswordAgainstTheStoredHash() {
+        when(userRepository.findPasswordById("user")).thenReturn(Optional.of(passwordEncoder.encode("old-password")));
+
+        accountService.changePassword(request("old-password"), "user",
+                new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        verify(userRepository).updatePassword(eq("user"), anyString());
+        verify(principalCache).evictByUserId("user");
+    }
+
+    @Test
+    void refusesAWrongOldPassword() {
+        when(userRepository.findPasswordById("user")).thenReturn(Optional.of(passwordEncoder.encode("old-password")));
+
+        assertThatThrownBy(() -> accountService.changePassword(request("wrong-password"), "user",
+                new MockHttpServletRequest(), new MockHttpServletResponse()))
+                .isInstanceOf(CustomException.class);
+        verify(userRepository, never()).updatePassword(anyString(), anyString());
+    }
+
+
+    private PasswordChangeRequest request(String oldPassword) {
+        PasswordChangeRequest request = new PasswordChangeRequest();
+        request.setOldPassword(oldPassword);
+        request.setNewPassword("new-password");
+        request.setConfirmPassword("new-password");
+        return request;
+    }
+}
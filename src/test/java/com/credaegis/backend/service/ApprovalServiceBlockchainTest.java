@@ -0,0 +1,165 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.constant.Constants;
+import com.credaegis.backend.dto.ApprovalBlockchainDTO;
+import com.credaegis.backend.entity.Approval;
+import com.credaegis.backend.entity.Cluster;
+import com.credaegis.backend.entity.Event;
+import com.credaegis.backend.entity.NotificationType;
+import com.credaegis.backend.entity.Organization;
+import com.credaegis.backend.entity.Status;
+import com.credaegis.backend.entity.User;
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import com.credaegis.backend.repository.ApprovalRepository;
+import com.credaegis.backend.repository.CertificateRepository;
+import com.credaegis.backend.repository.ClusterRepository;
+import com.credaegis.backend.repository.EventRepository;
+import com.credaegis.backend.repository.UserRepository;
+import com.credaegis.backend.utility.CheckSumUtility;
+import com.credaegis.backend.utility.CursorUtility;
+import com.credaegis.backend.utility.SearchUtility;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import okhttp3.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+
+class ApprovalServiceBlockchainTest {
+
+    private final ApprovalRepository approvalRepository = mock(ApprovalRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MinioClient minioClient = mock(MinioClient.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final StatisticService statisticService = mock(StatisticService.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final User user = new User();
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+    private final ApprovalService approvalService = new ApprovalService(approvalRepository,
+            mock(CertificateRepository.class), mock(EventRepository.class), minioClient, mock(ClusterRepository.class),
+            new CheckSumUtility(), userRepository, notificationService, rabbitTemplate,
+            new CursorUtility(), new ObjectMapper(), statisticService, mock(SearchUtility.class),
+            mock(OwnershipResolver.class), new TransactionTemplate(transactionManager));
+
+
+    @BeforeEach
+    void setUp() throws Exception {
+        user.setId("user");
+        when(userRepository.findById("user")).thenReturn(Optional.of(user));
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> new GetObjectResponse(
+                Headers.of(), "approvals", "", "path", new ByteArrayInputStream("certificate".getBytes())));
+    }
+
+
+    @Test
+    void sendsEachApprovalOnlyOnceItsStatusIsCommitted() {
+        Approval approval = approval("01A");
+        List<Boolean> committedWhenSent = new ArrayList<>();
+        doAnswer(invocation -> committedWhenSent.add(transactionManager.committed.contains(2)))
+                .when(rabbitTemplate).convertAndSend(eq(Constants.DIRECT_EXCHANGE),
+                        eq(Constants.APPROVAL_REQUEST_QUEUE_KEY), any(Object.class));
+
+        approveOnChain("01A");
+
+        assertThat(approval.getStatus()).isEqualTo(Status.buffered);
+        assertThat(committedWhenSent).containsExactly(true);
+    }
+
+    @Test
+    void aFailedApprovalDoesNotHoldBackTheOthers() {
+        Approval failing = approval("01A");
+        approval("01B");
+        doThrow(ExceptionFactory.internalError()).when(statisticService).approvalStatusChanged(eq(failing), any());
+
+        approveOnChain("01A", "01B");
+
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(rabbitTemplate).convertAndSend(eq(Constants.DIRECT_EXCHANGE),
+                eq(Constants.APPROVAL_REQUEST_QUEUE_KEY), sent.capture());
+        assertThat(((ApprovalBlockchainDTO) sent.getValue()).getApprovalId()).isEqualTo("01B");
+        assertThat(transactionManager.rolledBack).containsExactly(2);
+        assertThat(transactionManager.committed).containsExactly(1, 3, 4);
+        verify(notificationService).notify(user, "approval id 01A could not be processed because of an internal error",
+                NotificationType.ERROR);
+        verifyNoMoreInteractions(notificationService);
+    }
+
+
+    private void approveOnChain(String... approvalIds) {
+        try {
+            approvalService.approveCertifcatesBlockchain("user", "organization", List.of(approvalIds));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Approval approval(String id) {
+        Organization organization = new Organization();
+        organization.setId("organization");
+        Cluster cluster = new Cluster();
+        cluster.setId("cluster");
+        Event event = new Event();
+        event.setId("event");
+        Approval approval = new Approval();
+        approval.setId(id);
+        approval.setStatus(Status.pending);
+        approval.setOrganization(organization);
+        approval.setCluster(cluster);
+        approval.setEvent(event);
+        when(approvalRepository.findById(id)).thenReturn(Optional.of(approval));
+        return approval;
+    }
+
+
+    //numbers the transactions it begins and records which of them committed or rolled back,
+    //synchronizations run as they would with a real transaction manager
+    private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final List<Integer> committed = new ArrayList<>();
+        private final List<Integer> rolledBack = new ArrayList<>();
+        private int begun;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new int[1];
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            ((int[]) transaction)[0] = ++begun;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed.add(((int[]) status.getTransaction())[0]);
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rolledBack.add(((int[]) status.getTransaction())[0]);
+        }
+    }
+}
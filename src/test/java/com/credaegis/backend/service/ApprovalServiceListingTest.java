@@ -0,0 +1,110 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.dto.projection.ApprovalInfoProjection;
+import com.credaegis.backend.entity.Event;
+import com.credaegis.backend.entity.Status;
+import com.credaegis.backend.exception.custom.CustomException;
+import com.credaegis.backend.exception.custom.ExceptionFactory;
+import com.credaegis.backend.http.response.custom.CursorPageResponse;
+import com.credaegis.backend.repository.ApprovalRepository;
+import com.credaegis.backend.repository.CertificateRepository;
+import com.credaegis.backend.repository.ClusterRepository;
+import com.credaegis.backend.repository.EventRepository;
+import com.credaegis.backend.repository.UserRepository;
+import com.credaegis.backend.utility.CheckSumUtility;
+import com.credaegis.backend.utility.CursorUtility;
+import com.credaegis.backend.utility.SearchUtility;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.minio.MinioClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+
+class ApprovalServiceListingTest {
+
+    private final ApprovalRepository approvalRepository = mock(ApprovalRepository.class);
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final OwnershipResolver ownershipResolver = mock(OwnershipResolver.class);
+    private final CursorUtility cursorUtility = new CursorUtility();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ApprovalService approvalService = new ApprovalService(approvalRepository,
+            mock(CertificateRepository.class), eventRepository, mock(MinioClient.class), mock(ClusterRepository.class),
+            mock(CheckSumUtility.class), mock(UserRepository.class), mock(NotificationService.class),
+            mock(RabbitTemplate.class), cursorUtility, objectMapper, mock(StatisticService.class),
+            mock(SearchUtility.class), ownershipResolver, mock(TransactionTemplate.class));
+    private final Event event = new Event();
+
+
+    @BeforeEach
+    void setUp() {
+        event.setId("event");
+        when(eventRepository.getReferenceById("event")).thenReturn(event);
+    }
+
+
+    @Test
+    void pagesFromTheLastApprovalReceived() {
+        when(approvalRepository.getApprovalInfoByEventAndStatusAfter(any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(approval("01A"), approval("01B")), PageRequest.of(0, 2), true));
+
+        CursorPageResponse<ApprovalInfoProjection> firstPage =
+                approvalService.getEventApprovalsAfter("event", null, 2, "organization");
+        approvalService.getEventApprovalsAfter("event", firstPage.getNextCursor(), 2, "organization");
+
+        assertThat(firstPage.getHasNext()).isTrue();
+        verify(ownershipResolver, times(2)).checkEvent("event", "organization");
+        verify(approvalRepository).getApprovalInfoByEventAndStatusAfter(event, Status.pending, "", PageRequest.of(0, 2));
+        verify(approvalRepository).getApprovalInfoByEventAndStatusAfter(event, Status.pending, "01B", PageRequest.of(0, 2));
+    }
+
+    @Test
+    void streamsEveryChunkInOneEnvelope() throws Exception {
+        when(approvalRepository.getApprovalInfoByEventAndStatusAfter(event, Status.pending, "", PageRequest.of(0, 1000)))
+                .thenReturn(new SliceImpl<>(List.of(approval("01A"), approval("01B")), PageRequest.of(0, 1000), true));
+        when(approvalRepository.getApprovalInfoByEventAndStatusAfter(event, Status.pending, "01B", PageRequest.of(0, 1000)))
+                .thenReturn(new SliceImpl<>(List.of(approval("01C")), PageRequest.of(0, 1000), false));
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        approvalService.streamEventApprovals("event", "organization").writeTo(body);
+
+        JsonNode response = objectMapper.readTree(body.toByteArray());
+        assertThat(response.get("responseData").findValuesAsText("id")).containsExactly("01A", "01B", "01C");
+        assertThat(response.get("message").asText()).isEqualTo("approvals fetched");
+        assertThat(response.get("success").asBoolean()).isTrue();
+    }
+
+    @Test
+    void checksOwnershipBeforeTheResponseStarts() {
+        doThrow(ExceptionFactory.insufficientPermission()).when(ownershipResolver).checkEvent("event", "other");
+
+        assertThatThrownBy(() -> approvalService.streamEventApprovals("event", "other"))
+                .isInstanceOf(CustomException.class);
+        verifyNoInteractions(approvalRepository);
+    }
+
+
+    private ApprovalInfoProjection approval(String id) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ApprovalInfoProjection.class,
+                Map.of("id", id, "recipientName", "Recipient " + id));
+    }
+}
@@ -0,0 +1,135 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.configuration.mfa.LocalMfaAttemptStore;
+import com.credaegis.backend.entity.User;
+import com.credaegis.backend.exception.custom.CustomException;
+import com.credaegis.backend.http.request.MfaLoginRequest;
+import com.credaegis.backend.repository.UserRepository;
+import dev.samstevens.totp.code.CodeVerifier;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+class AuthServiceMfaTest {
+
+    private static final String EMAIL = "admin@credaegis.com";
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final CodeVerifier codeVerifier = mock(CodeVerifier.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AuthService authService = new AuthService(authenticationManager, codeVerifier, userRepository,
+            new LocalMfaAttemptStore(3, Duration.ofMinutes(5), Duration.ofSeconds(90), 100));
+
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setMfaEnabled(true);
+        user.setMfaSecret("secret");
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(codeVerifier.isValidCode("secret", "123456")).thenReturn(true);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation ->
+                UsernamePasswordAuthenticationToken.authenticated(EMAIL, null, List.of()));
+    }
+
+
+    @Test
+    void refusesAUsedCodeWithoutLoadingTheUser() {
+        mfaLogin("123456");
+
+        assertStatus(() -> mfaLogin("123456"), HttpStatus.UNAUTHORIZED);
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+        verify(authenticationManager, times(1)).authenticate(any());
+    }
+
+    @Test
+    void refusesFurtherAttemptsOnceTheFailuresAreUsedUp() {
+        for (int i = 0; i < 3; i++)
+            assertStatus(() -> mfaLogin("000000"), HttpStatus.UNAUTHORIZED);
+
+        assertStatus(() -> mfaLogin("123456"), HttpStatus.TOO_MANY_REQUESTS);
+        verify(userRepository, times(3)).findByEmail(EMAIL);
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    //every request reserves its attempt before the code is checked, so a burst cannot outrun the counter
+    @Test
+    void letsOnlyTheAllowedAttemptsOfAParallelBurstThrough() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < 20; i++)
+                attempts.add(executor.submit(() -> assertThatThrownBy(() -> mfaLogin("000000"))
+                        .isInstanceOf(CustomException.class)));
+            for (Future<?> attempt : attempts)
+                attempt.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        verify(userRepository, times(3)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void countsWrongPasswordsAndKeepsTheCode() {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        for (int i = 0; i < 3; i++)
+            assertThatThrownBy(() -> mfaLogin("123456")).isInstanceOf(BadCredentialsException.class);
+
+        assertStatus(() -> mfaLogin("123456"), HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void successClearsTheFailures() {
+        for (int i = 0; i < 2; i++)
+            assertStatus(() -> mfaLogin("000000"), HttpStatus.UNAUTHORIZED);
+        mfaLogin("123456");
+
+        when(codeVerifier.isValidCode("secret", "654321")).thenReturn(true);
+        for (int i = 0; i < 2; i++)
+            assertStatus(() -> mfaLogin("000000"), HttpStatus.UNAUTHORIZED);
+        mfaLogin("654321");
+    }
+
+
+    private void mfaLogin(String otp) {
+        MfaLoginRequest mfaLoginRequest = new MfaLoginRequest();
+        mfaLoginRequest.setEmail(EMAIL);
+        mfaLoginRequest.setPassword("password");
+        mfaLoginRequest.setOtp(otp);
+        HttpServletRequest request = new MockHttpServletRequest();
+        HttpServletResponse response = new MockHttpServletResponse();
+        authService.mfaLogin(mfaLoginRequest, request, response);
+    }
+
+    private void assertStatus(Runnable login, HttpStatus status) {
+        assertThatThrownBy(login::run).isInstanceOfSatisfying(CustomException.class,
+                e -> assertThat(e.getHttpStatus()).isEqualTo(status));
+    }
+}
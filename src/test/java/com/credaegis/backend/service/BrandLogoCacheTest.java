@@ -0,0 +1,55 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.dto.BrandLogoDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class BrandLogoCacheTest {
+
+    private final BrandLogoCache brandLogoCache = new BrandLogoCache(1024 * 1024);
+    private final AtomicInteger loads = new AtomicInteger();
+
+
+    @Test
+    void loadsOncePerUserAndVersion() {
+        brandLogoCache.get("user", null, 1, () -> load("user", 1, 100));
+        brandLogoCache.get("user", null, 1, () -> load("user", 1, 100));
+        assertThat(loads).hasValue(1);
+
+        BrandLogoDTO uploaded = brandLogoCache.get("user", null, 2, () -> load("user", 2, 100));
+        assertThat(uploaded.getETag()).isEqualTo("\"user-2\"");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictionOnlyDropsThatUsersLogos() {
+        brandLogoCache.get("user", null, 1, () -> load("user", 1, 100));
+        brandLogoCache.get("other", null, 1, () -> load("other", 1, 100));
+
+        brandLogoCache.evictByUserId("user");
+        brandLogoCache.get("user", null, 1, () -> load("user", 1, 100));
+        brandLogoCache.get("other", null, 1, () -> load("other", 1, 100));
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void keepsThePlaceholderInMemory() {
+        BrandLogoDTO placeholder = brandLogoCache.placeholder();
+
+        assertThat(placeholder.getContent()).isNotEmpty();
+        assertThat(placeholder.getContentType()).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(brandLogoCache.placeholder()).isSameAs(placeholder);
+    }
+
+
+    private BrandLogoDTO load(String userId, int version, int size) {
+        loads.incrementAndGet();
+        return new BrandLogoDTO(BrandLogoCache.eTag(userId, null, version), MediaType.IMAGE_JPEG, new byte[size]);
+    }
+}
@@ -0,0 +1,92 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.constant.ExportFormat;
+import com.credaegis.backend.dto.projection.CertificateInfoProjection;
+import com.credaegis.backend.repository.CertificateRepository;
+import com.credaegis.backend.utility.CsvUtility;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+class CertificateExportServiceTest {
+
+    private final CertificateRepository certificateRepository = mock(CertificateRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CertificateExportService certificateExportService = new CertificateExportService(
+            certificateRepository, new CsvUtility(), objectMapper);
+
+
+    //two chunks, the second one read from the last row of the first
+    @BeforeEach
+    void setUp() {
+        when(certificateRepository.getCertificateInfoAfter("organization", Date.valueOf("9999-12-31"), "",
+                PageRequest.of(0, 1000))).thenReturn(new SliceImpl<>(List.of(
+                certificate("01C", "2024-03-02", "first"), certificate("01B", "2024-03-01", null)),
+                PageRequest.of(0, 1000), true));
+        when(certificateRepository.getCertificateInfoAfter("organization", Date.valueOf("2024-03-01"), "01B",
+                PageRequest.of(0, 1000))).thenReturn(new SliceImpl<>(List.of(
+                certificate("01A", "2024-03-01", "late, reissued")), PageRequest.of(0, 1000), false));
+    }
+
+
+    @Test
+    void streamsEveryChunkAsOneGzippedCsv() throws Exception {
+        String csv = export(ExportFormat.csv);
+
+        assertThat(csv.split("\r\n")).containsExactly(
+                "id,certificateName,recipientName,recipientEmail,issuedDate,expiryDate,revoked,revokedDate," +
+                        "issuerName,issuerEmail,eventName,clusterName,comments",
+                "01C,certificate,Recipient 01C,01C@credaegis.com,2024-03-02,,false,,,,event,cluster,first",
+                "01B,certificate,Recipient 01B,01B@credaegis.com,2024-03-01,,false,,,,event,cluster,",
+                "01A,certificate,Recipient 01A,01A@credaegis.com,2024-03-01,,false,,,,event,cluster,\"late, reissued\"");
+    }
+
+    @Test
+    void streamsEveryChunkAsOneGzippedLinePerCertificate() throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : export(ExportFormat.ndjson).split("\n"))
+            lines.add(objectMapper.readTree(line));
+
+        assertThat(lines).extracting(line -> line.get("id").asText()).containsExactly("01C", "01B", "01A");
+        assertThat(lines.get(2).get("issuedDate").asText()).isEqualTo("2024-03-01");
+        assertThat(lines.get(2).get("comments").asText()).isEqualTo("late, reissued");
+        assertThat(lines.get(1).get("comments").isNull()).isTrue();
+    }
+
+
+    private String export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        certificateExportService.exportCertificates("organization", format).writeTo(body);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private CertificateInfoProjection certificate(String id, String issuedDate, String comments) {
+        Map<String, Object> values = new HashMap<>(Map.of("id", id, "certificateName", "certificate",
+                "recipientName", "Recipient " + id, "recipientEmail", id + "@credaegis.com",
+                "issuedDate", Date.valueOf(issuedDate), "revoked", false, "eventName", "event",
+                "clusterName", "cluster"));
+        values.put("comments", comments);
+        return new SpelAwareProxyProjectionFactory().createProjection(CertificateInfoProjection.class, values);
+    }
+}
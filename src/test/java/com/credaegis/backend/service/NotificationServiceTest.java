@@ -0,0 +1,89 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.dto.NotificationDTO;
+import com.credaegis.backend.entity.Notification;
+import com.credaegis.backend.entity.NotificationType;
+import com.credaegis.backend.entity.User;
+import com.credaegis.backend.exception.custom.CustomException;
+import com.credaegis.backend.http.response.custom.CursorPageResponse;
+import com.credaegis.backend.repository.NotificationRepository;
+import com.credaegis.backend.utility.CursorUtility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+class NotificationServiceTest {
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final NotificationPushService notificationPushService = mock(NotificationPushService.class);
+    private final CursorUtility cursorUtility = new CursorUtility();
+    private final NotificationService notificationService = new NotificationService(notificationRepository,
+            notificationPushService, cursorUtility);
+
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+
+    @Test
+    void pushesOnlyOnceTheNotificationIsCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        User user = new User();
+        user.setId("user");
+
+        notificationService.notify(user, "Approval rejected", NotificationType.ERROR);
+
+        ArgumentCaptor<Notification> saved = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationRepository).save(saved.capture());
+        verify(notificationPushService, never()).publish(any(), any());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+            synchronization.afterCommit();
+        ArgumentCaptor<NotificationDTO> pushed = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(notificationPushService).publish(eq("user"), pushed.capture());
+        assertThat(pushed.getValue().getId()).isEqualTo(saved.getValue().getId());
+        assertThat(pushed.getValue().getTimestamp()).isEqualTo(saved.getValue().getTimestamp());
+        assertThat(pushed.getValue().getTimestamp().getNanos()).isZero();
+    }
+
+    @Test
+    void pagesFromTheLastNotificationReceived() {
+        Timestamp timestamp = Timestamp.valueOf("2024-11-12 10:15:30");
+        NotificationDTO last = new NotificationDTO("01JCXG7R3M6Q2B8S5V9W4Y1Z0A", "message", NotificationType.INFO, timestamp);
+        when(notificationRepository.getNotificationsAfter(eq("user"), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(last), PageRequest.of(0, 1), true));
+
+        CursorPageResponse<NotificationDTO> firstPage = notificationService.getNotificationsAfter(null, 1, "user");
+        notificationService.getNotificationsAfter(firstPage.getNextCursor(), 1, "user");
+
+        verify(notificationRepository).getNotificationsAfter("user", Timestamp.valueOf("9999-12-31 00:00:00"), "",
+                PageRequest.of(0, 1));
+        verify(notificationRepository).getNotificationsAfter("user", timestamp, last.getId(), PageRequest.of(0, 1));
+    }
+
+    @Test
+    void rejectsCursorsItDidNotHandOut() {
+        assertThatThrownBy(() -> notificationService.getNotificationsAfter(cursorUtility.encode("yesterday", "id"), 20, "user"))
+                .isInstanceOf(CustomException.class);
+    }
+}
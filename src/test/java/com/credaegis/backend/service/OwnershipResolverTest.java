@@ -0,0 +1,50 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.exception.custom.CustomException;
+import com.credaegis.backend.repository.ClusterRepository;
+import com.credaegis.backend.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+class OwnershipResolverTest {
+
+    private final ClusterRepository clusterRepository = mock(ClusterRepository.class);
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final OwnershipResolver ownershipResolver = new OwnershipResolver(clusterRepository, eventRepository, 100);
+
+
+    @Test
+    void looksUpEachClusterOnce() {
+        when(clusterRepository.findOrganizationIdById("cluster")).thenReturn(Optional.of("organization"));
+
+        ownershipResolver.checkCluster("cluster", "organization");
+        ownershipResolver.checkCluster("cluster", "organization");
+        assertThatThrownBy(() -> ownershipResolver.checkCluster("cluster", "other"))
+                .isInstanceOfSatisfying(CustomException.class,
+                        e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.FORBIDDEN));
+
+        verify(clusterRepository, times(1)).findOrganizationIdById("cluster");
+    }
+
+    @Test
+    void doesNotRememberUnknownEvents() {
+        when(eventRepository.findOrganizationIdById("event")).thenReturn(Optional.empty(), Optional.of("organization"));
+
+        assertThatThrownBy(() -> ownershipResolver.checkEvent("event", "organization"))
+                .isInstanceOfSatisfying(CustomException.class,
+                        e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+        ownershipResolver.checkEvent("event", "organization");
+
+        verify(eventRepository, times(2)).findOrganizationIdById("event");
+    }
+}
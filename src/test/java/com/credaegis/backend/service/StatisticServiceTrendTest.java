@@ -0,0 +1,75 @@
+package com.credaegis.backend.service;
+
+import com.credaegis.backend.constant.TrendInterval;
+import com.credaegis.backend.dto.StatisticTrendDTO;
+import com.credaegis.backend.dto.projection.StatisticTrendProjection;
+import com.credaegis.backend.repository.ClusterRepository;
+import com.credaegis.backend.repository.EventRepository;
+import com.credaegis.backend.repository.OrganizationRepository;
+import com.credaegis.backend.repository.StatisticCounterRepository;
+import com.credaegis.backend.repository.StatisticRollupRepository;
+import com.credaegis.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+class StatisticServiceTrendTest {
+
+    private final StatisticRollupRepository statisticRollupRepository = mock(StatisticRollupRepository.class);
+    private final StatisticService statisticService = new StatisticService(mock(StatisticCounterRepository.class),
+            statisticRollupRepository, mock(OrganizationRepository.class), mock(ClusterRepository.class),
+            mock(EventRepository.class), mock(UserRepository.class));
+
+
+    @Test
+    void fillsDaysWithoutActivityWithZeros() {
+        Date from = Date.valueOf("2024-03-01");
+        Date to = Date.valueOf("2024-03-05");
+        when(statisticRollupRepository.getDailyTrend("organization", "organization", from, to))
+                .thenReturn(List.of(row("2024-03-02", 4, 0), row("2024-03-04", 1, 2)));
+
+        List<StatisticTrendDTO> trend = statisticService.getTrend(null, "organization", from, to, TrendInterval.day);
+
+        assertThat(trend).extracting(StatisticTrendDTO::getBucketDate, StatisticTrendDTO::getIssuedCertificateCount,
+                        StatisticTrendDTO::getRevokedCertificateCount)
+                .containsExactly(
+                        tuple(Date.valueOf("2024-03-01"), 0L, 0L),
+                        tuple(Date.valueOf("2024-03-02"), 4L, 0L),
+                        tuple(Date.valueOf("2024-03-03"), 0L, 0L),
+                        tuple(Date.valueOf("2024-03-04"), 1L, 2L),
+                        tuple(Date.valueOf("2024-03-05"), 0L, 0L));
+    }
+
+    //2024-03-06 is a wednesday, its week starts on monday the 4th. the 20th is also a wednesday,
+    //its week ends on sunday the 24th
+    @Test
+    void countsWholeWeeksFromTheMondayOfTheFirstDayToTheSundayOfTheLast() {
+        Date from = Date.valueOf("2024-03-06");
+        Date to = Date.valueOf("2024-03-20");
+        when(statisticRollupRepository.getWeeklyTrend("cluster", "organization", Date.valueOf("2024-03-04"),
+                Date.valueOf("2024-03-24"))).thenReturn(List.of(row("2024-03-04", 2, 0), row("2024-03-11", 7, 1)));
+
+        List<StatisticTrendDTO> trend = statisticService.getTrend("cluster", "organization", from, to, TrendInterval.week);
+
+        assertThat(trend).extracting(StatisticTrendDTO::getBucketDate, StatisticTrendDTO::getIssuedCertificateCount)
+                .containsExactly(
+                        tuple(Date.valueOf("2024-03-04"), 2L),
+                        tuple(Date.valueOf("2024-03-11"), 7L),
+                        tuple(Date.valueOf("2024-03-18"), 0L));
+    }
+
+
+    private StatisticTrendProjection row(String bucketDate, long issued, long revoked) {
+        return new SpelAwareProxyProjectionFactory().createProjection(StatisticTrendProjection.class,
+                Map.of("bucketDate", Date.valueOf(bucketDate), "issuedCount", issued, "revokedCount", revoked));
+    }
+}
@@ -0,0 +1,27 @@
+package com.credaegis.backend.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class CsvUtilityTest {
+
+    private final CsvUtility csvUtility = new CsvUtility();
+
+
+    @Test
+    void quotesOnlyFieldsThatNeedIt() {
+        String row = csvUtility.row(Arrays.asList("plain", "a,b", "say \"hi\"", "two\nlines", null, true));
+
+        assertThat(row).isEqualTo("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",,true\r\n");
+    }
+
+    @Test
+    void neutralisesSpreadsheetFormulas() {
+        assertThat(csvUtility.row(Arrays.asList("=HYPERLINK(\"x\")", "@SUM(A1)", "-1")))
+                .isEqualTo("\"'=HYPERLINK(\"\"x\"\")\",'@SUM(A1),'-1\r\n");
+    }
+}
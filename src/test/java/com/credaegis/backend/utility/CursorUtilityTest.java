@@ -0,0 +1,43 @@
+package com.credaegis.backend.utility;
+
+import com.credaegis.backend.exception.custom.CustomException;
+import com.credaegis.backend.http.response.custom.PageResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class CursorUtilityTest {
+
+    private final CursorUtility cursorUtility = new CursorUtility();
+
+
+    @Test
+    void decodesWhatItEncoded() {
+        String cursor = cursorUtility.encode("2024-05-01", "01HXZ3K6Q8R2V5T7W9Y1A3C5E7");
+
+        assertThat(cursor).doesNotContain("|", "=", "+", "/");
+        assertThat(cursorUtility.decode(cursor, 2)).isEqualTo(List.of("2024-05-01", "01HXZ3K6Q8R2V5T7W9Y1A3C5E7"));
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        assertThatThrownBy(() -> cursorUtility.decode("not base64!", 2)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> cursorUtility.decode(cursorUtility.encode("only-one"), 2)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> cursorUtility.decode(cursorUtility.encode("2024-05-01", ""), 2)).isInstanceOf(CustomException.class);
+    }
+
+    @Test
+    void offsetPagesTellWhetherMoreFollow() {
+        PageResponse<String> page = cursorUtility.toPage(new SliceImpl<>(List.of("a", "b"), cursorUtility.page(3, 2), true));
+
+        assertThat(page.getContent()).containsExactly("a", "b");
+        assertThat(page.getPage()).isEqualTo(3);
+        assertThat(page.getHasNext()).isTrue();
+        assertThatThrownBy(() -> cursorUtility.page(-1, 2)).isInstanceOf(CustomException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.credaegis.backend.utility;
+
+import com.credaegis.backend.exception.custom.CustomException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class ImageUtilityTest {
+
+    private final ImageUtility imageUtility = new ImageUtility();
+
+
+    @Test
+    void scalesOpaqueLogosDownToJpeg() throws IOException {
+        byte[] original = encode(image(2000, 1000, BufferedImage.TYPE_INT_RGB), "png");
+
+        byte[] header = imageUtility.resize(imageUtility.read(original), 256);
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(header));
+        assertThat(decoded.getWidth()).isEqualTo(256);
+        assertThat(decoded.getHeight()).isEqualTo(128);
+        assertThat(decoded.getColorModel().hasAlpha()).isFalse();
+        assertThat(header[0] & 0xFF).isEqualTo(0xFF);
+        assertThat(header[1] & 0xFF).isEqualTo(0xD8);
+        assertThat(header.length).isLessThan(original.length);
+    }
+
+    @Test
+    void keepsTransparencyAsPng() throws IOException {
+        BufferedImage transparent = image(600, 600, BufferedImage.TYPE_INT_ARGB);
+        byte[] thumbnail = imageUtility.resize(imageUtility.read(encode(transparent, "png")), 64);
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail));
+        assertThat(decoded.getWidth()).isEqualTo(64);
+        assertThat(decoded.getColorModel().hasAlpha()).isTrue();
+        assertThat(decoded.getRGB(0, 0) >>> 24).isZero();
+    }
+
+    @Test
+    void neverEnlargesSmallLogos() throws IOException {
+        byte[] print = imageUtility.resize(imageUtility.read(
+                encode(image(120, 40, BufferedImage.TYPE_INT_RGB), "jpeg")), 1024);
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(print));
+        assertThat(decoded.getWidth()).isEqualTo(120);
+        assertThat(decoded.getHeight()).isEqualTo(40);
+    }
+
+    @Test
+    void rejectsFilesThatAreNotImages() {
+        assertThatThrownBy(() -> imageUtility.read("%PDF-1.7".getBytes()))
+                .isInstanceOfSatisfying(CustomException.class,
+                        e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+
+    //a filled square in the middle, the corners stay transparent when the type has alpha
+    private BufferedImage image(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(20, 90, 160));
+        graphics.fillRect(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        return image;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, format, bytes);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,40 @@
+package com.credaegis.backend.utility;
+
+import com.credaegis.backend.exception.custom.CustomException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class SearchUtilityTest {
+
+    private final SearchUtility searchUtility = new SearchUtility();
+
+    {
+        ReflectionTestUtils.setField(searchUtility, "ngramTokenSize", 2);
+    }
+
+
+    @Test
+    void termsShorterThanTheTokenSizeAreNotFullTextSearchable() {
+        assertThat(searchUtility.isFullTextSearchable(" a ")).isFalse();
+        assertThat(searchUtility.isFullTextSearchable("ab")).isTrue();
+    }
+
+    @Test
+    void escapesUserInput() {
+        assertThat(searchUtility.phrase("say \"hi\"")).isEqualTo("\"say  hi\"");
+        assertThat(searchUtility.prefix(" 100%_a\\ ")).isEqualTo("100\\%\\_a\\\\%");
+    }
+
+    @Test
+    void recipientSearchTakesEitherEmailOrName() {
+        assertThat(searchUtility.isRecipientEmailSearch(" ", "name")).isFalse();
+        assertThat(searchUtility.isRecipientEmailSearch("a@b.com", null)).isTrue();
+        assertThatThrownBy(() -> searchUtility.isRecipientEmailSearch("a@b.com", "name"))
+                .isInstanceOf(CustomException.class);
+        assertThat(searchUtility.email(" Student@Credaegis.COM ")).isEqualTo("student@credaegis.com");
+    }
+}